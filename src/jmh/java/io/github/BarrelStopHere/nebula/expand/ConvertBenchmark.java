@@ -0,0 +1,111 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import io.github.BarrelStopHere.nebula.annotation.EdgeFrom;
+import io.github.BarrelStopHere.nebula.annotation.EdgeRank;
+import io.github.BarrelStopHere.nebula.annotation.EdgeTo;
+import io.github.BarrelStopHere.nebula.annotation.Vid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量插入语句的构建：整批一条语句，以及按行数 / 字节数切分
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"500"})
+    private int maxRows;
+
+    private int maxBytes = 1024 * 1024;
+    private List<Player> players;
+    private List<Follow> follows;
+
+    @Setup
+    public void setUp() {
+        players = new ArrayList<>(size);
+        follows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // 含需转义的引号，覆盖字符串转义路径
+            players.add(new Player("player" + i, "name \"" + i + "\"", 20 + i % 20, i * 0.5));
+            follows.add(new Follow("player" + i, "player" + (i + 1), i % 3, 0.5));
+        }
+    }
+
+    @Benchmark
+    public String vertexBuildAll() {
+        return new VertexConvert<>(players).build("player");
+    }
+
+    @Benchmark
+    public List<BatchStatement> vertexBuildChunked() {
+        return new VertexConvert<>(players).build("player", maxRows, maxBytes);
+    }
+
+    @Benchmark
+    public List<BatchStatement> vertexBuildParameterized() {
+        return new VertexConvert<>(players).buildParameterized("player", maxRows);
+    }
+
+    @Benchmark
+    public String edgeBuildAll() {
+        return new EdgeConvert<>(follows).build("follow");
+    }
+
+    @Benchmark
+    public List<BatchStatement> edgeBuildChunked() {
+        return new EdgeConvert<>(follows).build("follow", maxRows, maxBytes);
+    }
+
+    public static class Player {
+        @Vid
+        private String vid;
+        private String name;
+        private int age;
+        private double score;
+
+        public Player(String vid, String name, int age, double score) {
+            this.vid = vid;
+            this.name = name;
+            this.age = age;
+            this.score = score;
+        }
+    }
+
+    public static class Follow {
+        @EdgeFrom
+        private String src;
+        @EdgeTo
+        private String dst;
+        @EdgeRank
+        private long rank;
+        private double degree;
+
+        public Follow(String src, String dst, long rank, double degree) {
+            this.src = src;
+            this.dst = dst;
+            this.rank = rank;
+            this.degree = degree;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果集映射：RowMappingPlan 整行映射，以及逐值解码（legacy / natural / 字段绑定）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final List<String> COLUMNS = Arrays.asList("v.player_id", "v.name", "v.age", "v.score", "v.active");
+
+    @Param({"1000"})
+    private int rows;
+
+    private List<Row> data;
+    private List<Value> values;
+    private ValueDecoders.FieldBinder ageBinder;
+    private final Player target = new Player();
+
+    @Setup
+    public void setUp() throws Exception {
+        data = new ArrayList<>(rows);
+        values = new ArrayList<>(rows * COLUMNS.size());
+        for (int i = 0; i < rows; i++) {
+            Row row = new Row(Arrays.asList(
+                    Value.sVal(("player" + i).getBytes(StandardCharsets.UTF_8)),
+                    Value.sVal(("name" + i).getBytes(StandardCharsets.UTF_8)),
+                    Value.iVal(20 + i % 20),
+                    Value.fVal(i * 0.5),
+                    Value.bVal(i % 2 == 0)));
+            data.add(row);
+            values.addAll(row.getValues());
+        }
+        ageBinder = ValueDecoders.binder(Player.class.getDeclaredField("age"), MethodHandles.lookup());
+        // 预先建好映射计划，只测映射本身
+        RowMappingPlan.of(Player.class, COLUMNS);
+    }
+
+    @Benchmark
+    public List<Player> mapAll() {
+        return RowMappingPlan.of(Player.class, COLUMNS).mapAll(data);
+    }
+
+    @Benchmark
+    public void decodeLegacy(Blackhole bh) {
+        for (Value value : values) {
+            bh.consume(ValueDecoders.decodeLegacy(value));
+        }
+    }
+
+    @Benchmark
+    public void decodeNatural(Blackhole bh) {
+        for (Value value : values) {
+            bh.consume(ValueDecoders.decodeNatural(value));
+        }
+    }
+
+    /**
+     * 基本类型字段走不装箱的绑定
+     */
+    @Benchmark
+    public Player bindPrimitive() throws Throwable {
+        for (Row row : data) {
+            ageBinder.bind(target, row.getValues().get(2));
+        }
+        return target;
+    }
+
+    public static class Player {
+        private String playerId;
+        private String name;
+        private int age;
+        private double score;
+        private boolean active;
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExpandSessionManager 借还的竞争开销
+ * 线程数多于 session 上限时包含等待归还的时间；execute 为到进程内 FakeGraphd 的一次往返
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SessionPoolBenchmark {
+
+    @Param({"4", "16"})
+    private int maxConnSize;
+
+    @Param({"EWMA", "LEAST_OUTSTANDING"})
+    private RoutingPolicy routingPolicy;
+
+    private FakeGraphd first;
+    private FakeGraphd second;
+    private ExpandSessionManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        first = new FakeGraphd();
+        second = new FakeGraphd();
+        ExpandPoolConfig config = new ExpandPoolConfig();
+        config.setMinIdle(maxConnSize);
+        config.setRoutingPolicy(routingPolicy);
+        config.setBorrowTimeoutMillis(10000);
+        manager = new ExpandSessionManager(FakeGraphd.managerConfig("bench", maxConnSize, first, second), config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close("root");
+        first.close();
+        second.close();
+    }
+
+    @Benchmark
+    public ExpandSessionWrapper borrowReturn() throws Exception {
+        ExpandSessionWrapper session = manager.getSessionWrapper();
+        manager.returnSessionWrapper(session);
+        return session;
+    }
+
+    @Benchmark
+    public boolean borrowExecuteReturn() throws Exception {
+        ExpandSessionWrapper session = manager.getSessionWrapper();
+        try {
+            return session.execute("YIELD 1").isSucceeded();
+        } finally {
+            manager.returnSessionWrapper(session);
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package io.github.BarrelStopHere.nebula;
 
-import com.vesoft.nebula.Row;
 import com.vesoft.nebula.Value;
+import com.vesoft.nebula.client.graph.data.HostAddress;
 import com.vesoft.nebula.client.graph.data.ResultSet;
-import com.vesoft.nebula.client.graph.net.Session;
-import io.github.BarrelStopHere.nebula.annotation.NebulaIgnore;
+import com.vesoft.nebula.client.storage.StorageClient;
 import io.github.BarrelStopHere.nebula.expand.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 实现基本的nebula操作
@@ -21,9 +25,19 @@ import java.util.*;
 public class NebulaUtil {
     private volatile static NebulaUtil instance;
     private final Map<String, ExpandSessionManager> nebulaSessionsManagers;
+    private volatile BatchWriteConfig batchWriteConfig = new BatchWriteConfig();
+    private final SpaceExecutors asyncExecutors = new SpaceExecutors();
+    private volatile QueryCache queryCache;
+    private volatile SingleFlight singleFlight;
+    private volatile AdjacencyCache adjacencyCache;
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+    private final SlowQueryLogger slowQueryLogger = new SlowQueryLogger();
+    private final List<QueryListener> queryListeners = new CopyOnWriteArrayList<>();
 
     private NebulaUtil(Map<String, ExpandSessionManager> nebulaSessionsManagers) {
         this.nebulaSessionsManagers = nebulaSessionsManagers;
+        this.queryListeners.add(queryMetrics);
+        this.queryListeners.add(slowQueryLogger);
     }
 
     public static NebulaUtil getInstance() {
@@ -38,158 +52,612 @@ public class NebulaUtil {
     }
 
     public <T> List<T> list(String nGql, String space, Class<T> clazz) {
+        QueryCache cache = queryCache;
+        if (cache != null) {
+            List<T> cached = cache.get(space, nGql, clazz);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        SingleFlight flight = singleFlight;
+        if (flight == null) {
+            return query(nGql, space, clazz, cache);
+        }
+        return flight.execute(space, nGql, clazz, () -> query(nGql, space, clazz, cache));
+    }
+
+    private <T> List<T> query(String nGql, String space, Class<T> clazz, QueryCache cache) {
+        long generation = cache == null ? 0 : cache.generation(space, nGql);
         ResultSet resultSet = execute(nGql, space);
         if (resultSet == null) {
             return Collections.emptyList();
         }
+        List<T> result = resultSetToList(resultSet, clazz);
+        if (cache != null && resultSet.isSucceeded()) {
+            cache.put(space, nGql, clazz, result, generation);
+        }
+        return result;
+    }
+
+    /**
+     * 参数化查询，语句中以 $name 引用参数，值不拼接进语句文本
+     *
+     * @param template 语句模板，建议使用常量以便复用
+     * @param params   参数，可用 {@link NebulaParams} 构建后重复使用
+     */
+    public <T> List<T> list(String template, Map<String, Object> params, String space, Class<T> clazz) {
+        ResultSet resultSet = execute(template, params, space);
+        if (resultSet == null) {
+            return Collections.emptyList();
+        }
         return resultSetToList(resultSet, clazz);
     }
 
-    public <T> void insertVertex(List<T> entities, String tagName, String space) {
+    /**
+     * 分页流式查询，按 SKIP/LIMIT 翻页，每页消费完即释放
+     *
+     * @param nGql     不带 SKIP/LIMIT 的查询语句，需带 ORDER BY 保证翻页稳定
+     * @param pageSize 每页行数
+     */
+    public <T> Stream<T> stream(String nGql, String space, Class<T> clazz, int pageSize) {
+        return stream(PagedIterator.skipLimit(nGql, pageSize), space, clazz, pageSize);
+    }
+
+    /**
+     * 分页流式查询，由调用方构造每一页的语句，可基于上一页最后一个实体的排序键翻页
+     */
+    public <T> Stream<T> stream(PagedIterator.PageQuery<T> pageQuery, String space, Class<T> clazz, int pageSize) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator(pageQuery, space, clazz, pageSize), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public <T> Iterator<T> iterator(PagedIterator.PageQuery<T> pageQuery, String space, Class<T> clazz, int pageSize) {
+        return new PagedIterator<>(pageQuery, nGql -> execute(nGql, space), clazz, pageSize);
+    }
+
+    public <T> WriteResult insertVertex(List<T> entities, String tagName, String space) {
+        return insertVertex(entities, tagName, space, batchWriteConfig);
+    }
+
+    /**
+     * 批量插入顶点，按配置切分语句并在多个 session 上并发执行
+     */
+    public <T> WriteResult insertVertex(List<T> entities, String tagName, String space, BatchWriteConfig config) {
+        VertexConvert<T> converter = new VertexConvert<>(entities);
+        List<BatchStatement> statements = converter.build(
+                tagName, config.getMaxRowsPerStatement(), config.getMaxBytesPerStatement());
+        return executeWrite(statements, tagName, space, config.getParallelism());
+    }
+
+    public <T> WriteResult insertEdge(List<T> entities, String edgeName, String space) {
+        return insertEdge(entities, edgeName, space, batchWriteConfig);
+    }
+
+    /**
+     * 批量插入边，按配置切分语句并在多个 session 上并发执行
+     */
+    public <T> WriteResult insertEdge(List<T> entities, String edgeName, String space, BatchWriteConfig config) {
+        EdgeConvert<T> converter = new EdgeConvert<>(entities);
+        List<BatchStatement> statements = converter.build(
+                edgeName, config.getMaxRowsPerStatement(), config.getMaxBytesPerStatement());
+        return executeEdgeWrite(statements, entities, edgeName, space, config.getParallelism());
+    }
+
+    /**
+     * 创建顶点的异步合并写入器，使用完后需 close
+     */
+    public <T> BulkWriter<T> vertexWriter(Class<T> clazz, String tagName, String space, BulkWriterConfig config) {
+        return new BulkWriter<>(entities -> insertVertex(entities, tagName, space, config.getWriteConfig()),
+                VertexConvert.keyOf(clazz), config);
+    }
+
+    /**
+     * 创建边的异步合并写入器，使用完后需 close
+     */
+    public <T> BulkWriter<T> edgeWriter(Class<T> clazz, String edgeName, String space, BulkWriterConfig config) {
+        return new BulkWriter<>(entities -> insertEdge(entities, edgeName, space, config.getWriteConfig()),
+                EdgeConvert.keyOf(clazz), config);
+    }
+
+    /**
+     * 创建从 CSV / JSONL 文件导入顶点的导入器，调用 run 执行
+     */
+    public <T> BulkImporter<T> vertexImporter(Path file, LineMapper<T> mapper, String tagName, String space,
+                                              BulkImportConfig config) {
+        return new BulkImporter<>(file, mapper,
+                entities -> insertVertex(entities, tagName, space, config.getWriteConfig()), config);
+    }
+
+    /**
+     * 创建从 CSV / JSONL 文件导入边的导入器，调用 run 执行
+     */
+    public <T> BulkImporter<T> edgeImporter(Path file, LineMapper<T> mapper, String edgeName, String space,
+                                            BulkImportConfig config) {
+        return new BulkImporter<>(file, mapper,
+                entities -> insertEdge(entities, edgeName, space, config.getWriteConfig()), config);
+    }
+
+    /**
+     * 按分区并行扫描 tag 的全部顶点并写入文件，直接读取 storage，不经过 graphd
+     *
+     * @param metaAddresses metad 地址
+     */
+    public <T> ExportProgress exportVertices(List<HostAddress> metaAddresses, Class<T> clazz, String tagName,
+                                             String space, LineFormatter<T> formatter, Path output,
+                                             ExportConfig config) throws IOException {
+        StorageClient client = connectStorage(metaAddresses);
+        try {
+            return PartitionExporter.vertices(client, metaAddresses, clazz, tagName, space, formatter, output, config)
+                    .run();
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * 按分区并行扫描边类型的全部边并写入文件，直接读取 storage，不经过 graphd
+     *
+     * @param metaAddresses metad 地址
+     */
+    public <T> ExportProgress exportEdges(List<HostAddress> metaAddresses, Class<T> clazz, String edgeName,
+                                          String space, LineFormatter<T> formatter, Path output,
+                                          ExportConfig config) throws IOException {
+        StorageClient client = connectStorage(metaAddresses);
+        try {
+            return PartitionExporter.edges(client, metaAddresses, clazz, edgeName, space, formatter, output, config)
+                    .run();
+        } finally {
+            client.close();
+        }
+    }
+
+    private StorageClient connectStorage(List<HostAddress> metaAddresses) {
+        StorageClient client = new StorageClient(metaAddresses);
+        try {
+            if (!client.connect()) {
+                throw new NebulaException("连接 storage 失败");
+            }
+            return client;
+        } catch (NebulaException e) {
+            client.close();
+            throw e;
+        } catch (Exception e) {
+            client.close();
+            throw new NebulaException("连接 storage 失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 参数化批量插入顶点，同样行数的批次复用同一条语句模板
+     */
+    public <T> WriteResult insertVertexWithParameter(List<T> entities, String tagName, String space) {
+        BatchWriteConfig config = batchWriteConfig;
         VertexConvert<T> converter = new VertexConvert<>(entities);
-        String nGql = converter.build(tagName);
-        execute(nGql, space);
+        List<BatchStatement> statements = converter.buildParameterized(tagName, config.getMaxRowsPerStatement());
+        return executeWrite(statements, tagName, space, config.getParallelism());
     }
 
-    public <T> void insertEdge(List<T> entities, String edgeName, String space) {
+    /**
+     * 参数化批量插入边，同样行数的批次复用同一条语句模板
+     */
+    public <T> WriteResult insertEdgeWithParameter(List<T> entities, String edgeName, String space) {
+        BatchWriteConfig config = batchWriteConfig;
         EdgeConvert<T> converter = new EdgeConvert<>(entities);
-        String nGql = converter.build(edgeName);
-        execute(nGql, space);
+        List<BatchStatement> statements = converter.buildParameterized(edgeName, config.getMaxRowsPerStatement());
+        return executeEdgeWrite(statements, entities, edgeName, space, config.getParallelism());
+    }
+
+    public <T> WriteResult updateVertex(List<T> entities, Function<T, ? extends Collection<String>> dirty,
+                                        String tagName, String space) {
+        return updateVertex(entities, dirty, tagName, space, batchWriteConfig);
+    }
+
+    /**
+     * 批量更新顶点的部分属性，dirty 返回每个实体需要写入的属性名，为空的实体跳过
+     */
+    public <T> WriteResult updateVertex(List<T> entities, Function<T, ? extends Collection<String>> dirty,
+                                        String tagName, String space, BatchWriteConfig config) {
+        return writePartial("UPDATE", false, entities, dirty, tagName, space, config);
+    }
+
+    /**
+     * 只写入相对快照变化的属性，成功后刷新快照
+     */
+    public <T> WriteResult updateVertex(List<T> entities, DirtyTracker<T> tracker, String tagName, String space) {
+        return track(updateVertex(entities, tracker::dirtyFields, tagName, space), entities, tracker);
+    }
+
+    public <T> WriteResult upsertVertex(List<T> entities, Function<T, ? extends Collection<String>> dirty,
+                                        String tagName, String space) {
+        return upsertVertex(entities, dirty, tagName, space, batchWriteConfig);
+    }
+
+    /**
+     * 批量 UPSERT 顶点的部分属性，顶点不存在时创建，未写入的属性取默认值
+     */
+    public <T> WriteResult upsertVertex(List<T> entities, Function<T, ? extends Collection<String>> dirty,
+                                        String tagName, String space, BatchWriteConfig config) {
+        return writePartial("UPSERT", false, entities, dirty, tagName, space, config);
+    }
+
+    public <T> WriteResult upsertVertex(List<T> entities, DirtyTracker<T> tracker, String tagName, String space) {
+        return track(upsertVertex(entities, tracker::dirtyFields, tagName, space), entities, tracker);
+    }
+
+    public <T> WriteResult upsertEdge(List<T> entities, Function<T, ? extends Collection<String>> dirty,
+                                      String edgeName, String space) {
+        return upsertEdge(entities, dirty, edgeName, space, batchWriteConfig);
+    }
+
+    /**
+     * 批量 UPSERT 边的部分属性，边不存在时创建，未写入的属性取默认值
+     */
+    public <T> WriteResult upsertEdge(List<T> entities, Function<T, ? extends Collection<String>> dirty,
+                                      String edgeName, String space, BatchWriteConfig config) {
+        return writePartial("UPSERT", true, entities, dirty, edgeName, space, config);
+    }
+
+    public <T> WriteResult upsertEdge(List<T> entities, DirtyTracker<T> tracker, String edgeName, String space) {
+        return track(upsertEdge(entities, tracker::dirtyFields, edgeName, space), entities, tracker);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> WriteResult writePartial(String verb, boolean edge, List<T> entities,
+                                         Function<T, ? extends Collection<String>> dirty,
+                                         String schemaName, String space, BatchWriteConfig config) {
+        if (entities.isEmpty()) {
+            return WriteResult.empty();
+        }
+        UpdateConvert<T> converter = new UpdateConvert<>((Class<T>) entities.get(0).getClass());
+        if (edge) {
+            List<BatchStatement> statements = converter.buildEdge(verb, schemaName, entities, dirty,
+                    config.getMaxRowsPerStatement(), config.getMaxBytesPerStatement());
+            return executeEdgeWrite(statements, entities, schemaName, space, config.getParallelism());
+        }
+        List<BatchStatement> statements = converter.buildVertex(verb, schemaName, entities, dirty,
+                config.getMaxRowsPerStatement(), config.getMaxBytesPerStatement());
+        return executeWrite(statements, schemaName, space, config.getParallelism());
+    }
+
+    /**
+     * 全部写入成功时刷新快照；部分失败时无法确定哪些实体已写入，保留旧快照以便重试
+     */
+    private <T> WriteResult track(WriteResult result, List<T> entities, DirtyTracker<T> tracker) {
+        if (result.isSucceeded()) {
+            tracker.track(entities);
+        }
+        return result;
+    }
+
+    public WriteResult deleteVertices(Collection<?> ids, String space, boolean withEdge) {
+        return deleteVertices(ids, space, withEdge, batchWriteConfig);
+    }
+
+    /**
+     * 批量删除顶点，按配置切分语句并在多个 session 上并发执行，结果按语句汇总
+     *
+     * @param ids      VID，按原样拼接，与插入时一致
+     * @param withEdge 同时删除顶点的出边和入边
+     */
+    public WriteResult deleteVertices(Collection<?> ids, String space, boolean withEdge, BatchWriteConfig config) {
+        List<BatchStatement> statements = DeleteConvert.vertices(
+                ids, withEdge, config.getMaxRowsPerStatement(), config.getMaxBytesPerStatement());
+        try {
+            return executeBatch(statements, space, config.getParallelism());
+        } finally {
+            // 删除顶点会影响其全部 tag 和边，无法按名称失效
+            QueryCache cache = queryCache;
+            if (cache != null) {
+                cache.invalidateSpace(space);
+            }
+            AdjacencyCache adjacency = adjacencyCache;
+            if (adjacency != null) {
+                adjacency.invalidateSpace(space);
+            }
+        }
+    }
+
+    public <T> WriteResult deleteEdges(List<T> entities, String edgeName, String space) {
+        return deleteEdges(entities, edgeName, space, batchWriteConfig);
+    }
+
+    /**
+     * 批量删除边，边键取自实体的 @EdgeFrom、@EdgeTo 和 @EdgeRank 字段
+     */
+    public <T> WriteResult deleteEdges(List<T> entities, String edgeName, String space, BatchWriteConfig config) {
+        List<BatchStatement> statements = DeleteConvert.edges(
+                entities, edgeName, config.getMaxRowsPerStatement(), config.getMaxBytesPerStatement());
+        return executeEdgeWrite(statements, entities, edgeName, space, config.getParallelism());
+    }
+
+    public <T> List<T> fetchVertices(Collection<?> ids, String tagName, String space, Class<T> clazz) {
+        return fetchVertices(ids, tagName, space, clazz, batchWriteConfig);
+    }
+
+    /**
+     * 按 VID 批量查询顶点，多个 VID 合并到一条 FETCH 中，按配置切分后并发执行；
+     * 结果顺序不保证与 ids 一致，不存在的 VID 没有对应实体，任一语句失败时抛出异常
+     *
+     * @param ids VID，按原样拼接，与插入时一致
+     */
+    public <T> List<T> fetchVertices(Collection<?> ids, String tagName, String space, Class<T> clazz,
+                                     BatchWriteConfig config) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<BatchStatement> statements = FetchConvert.vertices(
+                ids, tagName, clazz, config.getMaxRowsPerStatement(), config.getMaxBytesPerStatement());
+        Queue<ResultSet> resultSets = new ConcurrentLinkedQueue<>();
+        WriteResult result = BatchExecutor.execute(statements, statement -> {
+            ResultSet resultSet = execute(statement.getNGql(), space);
+            if (resultSet != null && resultSet.isSucceeded()) {
+                resultSets.add(resultSet);
+            }
+            return resultSet;
+        }, config.getParallelism());
+        if (!result.isSucceeded()) {
+            throw new NebulaException("批量查询顶点失败: " + result.getFailedChunks().get(0).getErrorMessage());
+        }
+        List<T> entities = new ArrayList<>(ids.size());
+        for (ResultSet resultSet : resultSets) {
+            entities.addAll(resultSetToList(resultSet, clazz));
+        }
+        return entities;
+    }
+
+    /**
+     * 创建按 VID 合并查询的加载器，窗口内的单个查询合并为一次 fetchVertices，在该 space 的异步线程池中执行；
+     * 使用完后需 close
+     */
+    public <T> VertexLoader<T> vertexLoader(Class<T> clazz, String tagName, String space, VertexLoaderConfig config) {
+        return new VertexLoader<>(ids -> asyncExecutors.supply(space, maxSessions(space),
+                () -> fetchVertices(ids, tagName, space, clazz)), VertexConvert.keyOf(clazz), config);
+    }
+
+    /**
+     * 查询顶点在某类边上的邻居 VID，结果去重，顺序不保证；
+     * 启用邻居缓存时优先从缓存读取，该边类型的写入和删除会失效起点和终点的条目
+     *
+     * @param vid VID，按原样拼接，与插入时一致
+     */
+    public Adjacency neighbors(Object vid, String edgeName, EdgeDirection direction, String space) {
+        AdjacencyCache cache = adjacencyCache;
+        if (cache != null) {
+            Adjacency cached = cache.get(space, edgeName, direction, vid);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long generation = cache == null ? 0 : cache.generation(space, edgeName);
+        String nGql = "GO FROM " + vid + " OVER " + edgeName + direction.clause() + " YIELD DISTINCT id($$) AS vid";
+        ResultSet resultSet = execute(nGql, space);
+        if (resultSet == null || !resultSet.isSucceeded()) {
+            throw new NebulaException("查询邻居失败: " + (resultSet == null ? nGql : resultSet.getErrorMessage()));
+        }
+        Adjacency adjacency = Adjacency.of(resultSet);
+        if (cache != null) {
+            cache.put(space, edgeName, direction, vid, adjacency, generation);
+        }
+        return adjacency;
+    }
+
+    /**
+     * 执行边的写入语句，除按名称失效查询缓存外，还失效邻居缓存中这些边起点和终点的条目
+     */
+    @SuppressWarnings("unchecked")
+    private <T> WriteResult executeEdgeWrite(List<BatchStatement> statements, List<T> entities, String edgeName,
+                                             String space, int parallelism) {
+        try {
+            return executeWrite(statements, edgeName, space, parallelism);
+        } finally {
+            AdjacencyCache cache = adjacencyCache;
+            if (cache != null && !entities.isEmpty()) {
+                Function<T, Object> keyOf = EdgeConvert.keyOf((Class<T>) entities.get(0).getClass());
+                Set<Object> vids = new HashSet<>();
+                for (T entity : entities) {
+                    List<?> key = (List<?>) keyOf.apply(entity);
+                    vids.add(key.get(0));
+                    vids.add(key.get(1));
+                }
+                vids.remove(null);
+                cache.invalidate(space, edgeName, vids);
+            }
+        }
+    }
+
+    /**
+     * 执行写入语句，并失效缓存中引用了该 tag / edge 的查询
+     */
+    private WriteResult executeWrite(List<BatchStatement> statements, String schemaName, String space, int parallelism) {
+        try {
+            return executeBatch(statements, space, parallelism);
+        } finally {
+            QueryCache cache = queryCache;
+            if (cache != null) {
+                cache.invalidate(space, schemaName);
+            }
+        }
+    }
+
+    public WriteResult executeBatch(List<BatchStatement> statements, String space, int parallelism) {
+        return BatchExecutor.execute(statements,
+                statement -> execute(statement.getNGql(), statement.getParams(), space), parallelism);
+    }
+
+    public void setBatchWriteConfig(BatchWriteConfig batchWriteConfig) {
+        this.batchWriteConfig = batchWriteConfig;
+    }
+
+    /**
+     * 启用 list 查询结果缓存，传 null 关闭
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * 启用并发相同查询合并，作用于 list(nGql, space, clazz)，传 null 关闭
+     */
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * 启用 neighbors 邻居缓存，传 null 关闭
+     */
+    public void setAdjacencyCache(AdjacencyCache adjacencyCache) {
+        this.adjacencyCache = adjacencyCache;
+    }
+
+    public AdjacencyCache getAdjacencyCache() {
+        return adjacencyCache;
+    }
+
+    /**
+     * 异步执行，在该 space 的异步线程池中运行，线程数与 session 上限一致
+     */
+    public CompletableFuture<ResultSet> executeAsync(String nGql, String space) {
+        return executeAsync(nGql, null, space);
+    }
+
+    public CompletableFuture<ResultSet> executeAsync(String nGql, Map<String, Object> params, String space) {
+        return asyncExecutors.supply(space, maxSessions(space), () -> execute(nGql, params, space));
+    }
+
+    public <T> CompletableFuture<List<T>> listAsync(String nGql, String space, Class<T> clazz) {
+        return asyncExecutors.supply(space, maxSessions(space), () -> list(nGql, space, clazz));
+    }
+
+    public <T> CompletableFuture<List<T>> listAsync(String template, Map<String, Object> params,
+                                                    String space, Class<T> clazz) {
+        return asyncExecutors.supply(space, maxSessions(space), () -> list(template, params, space, clazz));
+    }
+
+    /**
+     * 替换异步执行器工厂，例如 (space, size) -> Executors.newVirtualThreadPerTaskExecutor()
+     */
+    public void setAsyncExecutorFactory(SpaceExecutors.Factory factory) {
+        asyncExecutors.setFactory(factory);
+    }
+
+    private int maxSessions(String space) {
+        return getSessionManager(space).getMaxSessions();
+    }
+
+    private ExpandSessionManager getSessionManager(String space) {
+        ExpandSessionManager sessionManager = nebulaSessionsManagers.get(space);
+        if (sessionManager == null) {
+            throw new NebulaException("未配置的space: " + space);
+        }
+        return sessionManager;
     }
 
     // 执行nGql语句
     public ResultSet execute(String nGql, String space) {
-        ExpandSessionManager sessionManager = nebulaSessionsManagers.get(space);
+        return execute(nGql, null, space);
+    }
+
+    // 执行参数化nGql语句，params为空时按普通语句执行
+    public ResultSet execute(String nGql, Map<String, Object> params, String space) {
+        ExpandSessionManager sessionManager = getSessionManager(space);
         ExpandSessionWrapper sessionWrapper = null;
+        ResultSet resultSet = null;
+        String error = null;
+        long start = System.nanoTime(), acquired = start;
         try {
             sessionWrapper = sessionManager.getSessionWrapper();
-            Session session = sessionWrapper.getSession();
-            log.info("execute nGql:{}", nGql);
-            ResultSet resultSet = session.execute(nGql);
+            acquired = System.nanoTime();
+            // 经由 sessionWrapper 执行，记录语句往返耗时供路由使用
+            resultSet = params == null || params.isEmpty()
+                    ? sessionWrapper.execute(nGql)
+                    : sessionWrapper.executeWithParameter(nGql, params);
             if (resultSet != null) {
                 if (StringUtils.isNotBlank(resultSet.getErrorMessage())) {
-                    log.error("执行错误:{}", resultSet.getErrorMessage());
+                    error = resultSet.getErrorMessage();
+                    log.error("执行错误:{}", error);
                 }
                 return resultSet;
             }
         } catch (Exception e) {
+            error = e.getMessage();
             throw new NebulaException(e.getMessage());
         } finally {
+            long end = System.nanoTime();
             if (sessionWrapper != null) {
                 // 使用完后归还sessionWrapper的使用权
                 sessionManager.returnSessionWrapper(sessionWrapper);
+            } else {
+                // 未借到 session：等待直至超时或失败的时间都计为获取耗时，没有往返
+                acquired = end;
             }
+            fireQueryEvent(space, nGql, acquired - start, end - acquired, resultSet, error);
         }
         return null;
     }
 
-    private <T> List<T> resultSetToList(ResultSet rs, Class<T> clazz) throws NebulaException {
-        List<T> result = new ArrayList<>();
-        List<String> columns = rs.getColumnNames();
-        List<Row> rows = rs.getRows();
-
-        // 预处理字段映射关系（排除被 @NebulaIgnore 标记的字段）
-        Map<String, Field> fieldMap = new HashMap<>();
-        for (Field field : clazz.getDeclaredFields()) {
-            if (!field.isAnnotationPresent(NebulaIgnore.class)) {
-                field.setAccessible(true);
-                fieldMap.put(field.getName(), field); // 保留原始字段名
-            }
+    private void fireQueryEvent(String space, String nGql, long acquireNanos, long roundTripNanos,
+                                ResultSet resultSet, String error) {
+        if (queryListeners.isEmpty()) {
+            return;
         }
-
-        for (Row row : rows) {
-            T instance;
+        boolean succeeded = resultSet != null && error == null;
+        QueryEvent event = new QueryEvent(space, nGql, acquireNanos, roundTripNanos,
+                resultSet == null ? -1 : resultSet.getLatency(),
+                succeeded ? resultSet.rowsSize() : 0, succeeded, error);
+        for (QueryListener listener : queryListeners) {
             try {
-                Constructor<T> constructor = clazz.getDeclaredConstructor();
-                constructor.setAccessible(true);
-                instance = constructor.newInstance();
+                listener.onQuery(event);
             } catch (Exception e) {
-                throw new NebulaException("无法实例化对象: " + clazz.getName());
+                log.warn("QueryListener 执行失败: {}", e.getMessage());
             }
-
-            for (int i = 0; i < columns.size(); i++) {
-                String colName = columns.get(i);
-                String[] split = colName.split("\\.");
-                colName = split[split.length - 1];
-                String camelName = toCamelCase(colName); // 转换为驼峰式
-                Field field = fieldMap.get(camelName); // 根据驼峰名查找字段
-                if (field != null) {
-                    Value value = row.getValues().get(i);
-                    Object valueObj = getValueByType(value);
-                    try {
-                        field.set(instance, valueObj);
-                    } catch (IllegalAccessException e) {
-                        throw new NebulaException("设置字段[" + field.getName() + "]值失败");
-                    }
-                }
-            }
-            result.add(instance);
         }
-        return result;
+    }
+
+    public void addQueryListener(QueryListener listener) {
+        queryListeners.add(listener);
+    }
+
+    public void removeQueryListener(QueryListener listener) {
+        queryListeners.remove(listener);
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    public SlowQueryLogger getSlowQueryLogger() {
+        return slowQueryLogger;
+    }
+
+    /**
+     * 连接池计数：借出、空闲、创建、替换等
+     */
+    public PoolStats getPoolStats(String space) {
+        return getSessionManager(space).getPoolStats();
+    }
+
+    /**
+     * 各 graphd 节点的路由状态：借出数、耗时估计、是否摘除
+     */
+    public List<HostStats> getHostStats(String space) {
+        return getSessionManager(space).getHostStats();
+    }
+
+    private <T> List<T> resultSetToList(ResultSet rs, Class<T> clazz) throws NebulaException {
+        // 映射计划按 (类, 列) 缓存，逐行映射时不再做反射查找和列名处理
+        RowMappingPlan<T> plan = RowMappingPlan.of(clazz, rs.getColumnNames());
+        return plan.mapAll(rs.getRows());
     }
 
     public Object getValueByType(Value value) {
-        int fieldType = value.getSetField();
-        switch (fieldType) {
-            case 1: // NullType
-                return null;
-            case 2: // Boolean
-                return value.isBVal();
-            case 3: // Long
-                return value.getIVal();
-            case 4: // Double
-                return value.getFVal();
-            case 5: // 字节数组转字符串
-                return new String(value.getSVal(), StandardCharsets.UTF_8);
-            case 6: // Date
-                return value.getDVal().toString();
-            case 7: // Time
-                return value.getTVal().toString();
-            case 8: // DateTime
-                return value.getDtVal().toString();
-            case 9: // Vertex
-                return value.getVVal().toString();
-            case 10: // Edge
-                return value.getEVal().toString();
-            case 11: // Path
-                return value.getPVal().toString();
-            case 12: // NList
-                return value.getLVal().toString();
-            case 13: // NMap
-                return value.getMVal().toString();
-            case 14: // NSet
-                return value.getUVal().toString();
-            case 15: // DataSet
-                return value.getGVal().toString();
-            case 16: // Geography
-                return value.getGgVal().toString();
-            case 17: // Duration
-                return value.getDuVal().toString();
-            default:
-                return "未知类型";
-        }
-    }
-
-    private static String toCamelCase(String s) {
-        if (s == null || s.isEmpty()) {
-            return s;
-        }
-        s = s.toLowerCase().replaceAll("_{2,}", "_"); // 处理连续下划线
-        StringBuilder sb = new StringBuilder();
-        boolean nextUpperCase = false;
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '_') {
-                nextUpperCase = true;
-            } else {
-                if (nextUpperCase) {
-                    sb.append(Character.toUpperCase(c));
-                    nextUpperCase = false;
-                } else {
-                    sb.append(c);
-                }
-            }
-        }
-        return sb.toString();
+        return ValueDecoders.decodeLegacy(value);
     }
-}
+}
\ No newline at end of file
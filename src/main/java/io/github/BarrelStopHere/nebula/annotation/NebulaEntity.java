@@ -0,0 +1,15 @@
+package io.github.BarrelStopHere.nebula.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记需要在编译期生成映射类的实体，
+ * 含 @Vid 或 @EdgeFrom/@EdgeTo 字段的类无需标记
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NebulaEntity {
+}
@@ -1,8 +1,10 @@
 package io.github.BarrelStopHere.nebula.expand;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 
 public abstract class AbstractConvert {
@@ -21,25 +23,46 @@ public abstract class AbstractConvert {
         int i = 0, size = fieldList.size();
         for (Field field : fieldList) {
             Object value = field.get(t);
-            if (value == null) {
-                sb.append("NULL");
+            if (field.getType() == String.class) {
+                NGqlEncoder.appendString(sb, (String) value);
             } else {
-                if (field.getType() == String.class) {
-                    String str = value.toString();
-                    if (str.contains("\"")) {
-                        str = str.replace("\"", "\\\"");
-                    }
-                    sb.append("\"").append(str).append("\"");
-                } else if (field.getType() == boolean.class || field.getType() == Boolean.class) {
-                    sb.append(value.toString().toLowerCase());
-                } else {
-                    sb.append(value);
-                }
+                NGqlEncoder.appendValue(sb, value);
             }
             if (++i != size) sb.append(",");
         }
     }
 
+    /**
+     * 把实体的属性值按参数名放入参数表，值保持原始类型，由客户端转换为 Value
+     */
+    protected <T> void putProps(T t, String[] paramNames, Map<String, Object> params) throws IllegalAccessException {
+        int i = 0;
+        for (Field field : fieldList) {
+            params.put(paramNames[i++], EntityMappers.param(field.get(t)));
+        }
+    }
+
+    /**
+     * 查找带指定注解的字段，找不到时返回 null
+     */
+    protected static Field annotatedField(Class<?> clazz, Class<? extends Annotation> annotation) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (field.isAnnotationPresent(annotation)) {
+                field.setAccessible(true);
+                return field;
+            }
+        }
+        return null;
+    }
+
+    protected static Object readField(Field field, Object entity) {
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new NebulaException("读取字段[" + field.getName() + "]失败");
+        }
+    }
+
     public void closeField() {
         for (Field field : fieldList) {
             field.setAccessible(false);
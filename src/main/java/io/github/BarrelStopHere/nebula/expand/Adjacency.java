@@ -0,0 +1,112 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import com.vesoft.nebula.client.graph.data.ResultSet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 一个顶点的邻居 VID 列表
+ * 整数 VID 存为 long[]，字符串 VID 的 UTF-8 字节连续存放在一个 byte[] 中并以 int[] 记录偏移，
+ * 不为每个邻居保留对象；按下标读取时才生成 Long / String。只读，可在线程间共享
+ */
+public final class Adjacency extends AbstractList<Object> implements RandomAccess {
+
+    private static final long[] NO_LONGS = new long[0];
+
+    private final long[] longs;
+    private final byte[] bytes;
+    private final int[] offsets;
+
+    private Adjacency(long[] longs, byte[] bytes, int[] offsets) {
+        this.longs = longs;
+        this.bytes = bytes;
+        this.offsets = offsets;
+    }
+
+    /**
+     * 取结果集第一列作为邻居 VID，列值须全部为整数或全部为字符串
+     */
+    public static Adjacency of(ResultSet resultSet) {
+        List<Row> rows = resultSet.getRows();
+        int n = rows.size();
+        if (n == 0) {
+            return new Adjacency(NO_LONGS, null, null);
+        }
+        if (rows.get(0).getValues().get(0).getSetField() == Value.IVAL) {
+            long[] longs = new long[n];
+            for (int i = 0; i < n; i++) {
+                longs[i] = vid(rows.get(i), Value.IVAL).getIVal();
+            }
+            return new Adjacency(longs, null, null);
+        }
+        int[] offsets = new int[n + 1];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            length += vid(rows.get(i), Value.SVAL).getSVal().length;
+            offsets[i + 1] = length;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < n; i++) {
+            byte[] s = rows.get(i).getValues().get(0).getSVal();
+            System.arraycopy(s, 0, bytes, offsets[i], s.length);
+        }
+        return new Adjacency(null, bytes, offsets);
+    }
+
+    private static Value vid(Row row, int type) {
+        Value value = row.getValues().get(0);
+        if (value.getSetField() != type) {
+            throw new NebulaException("邻居 VID 类型不一致: " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return longs != null ? longs.length : offsets.length - 1;
+    }
+
+    /**
+     * 整数 VID 返回 Long，字符串 VID 返回 String
+     */
+    @Override
+    public Object get(int index) {
+        return longs != null ? (Object) getLong(index) : getString(index);
+    }
+
+    public boolean isLongVid() {
+        return longs != null;
+    }
+
+    public long getLong(int index) {
+        if (longs == null) {
+            throw new IllegalStateException("字符串 VID 请使用 getString");
+        }
+        return longs[index];
+    }
+
+    public String getString(int index) {
+        if (offsets == null) {
+            return Long.toString(longs[index]);
+        }
+        if (index < 0 || index >= offsets.length - 1) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 估算占用的堆内存（字节），用于缓存容量计算
+     */
+    public long estimatedBytes() {
+        if (longs != null) {
+            return 32 + 16 + 8L * longs.length;
+        }
+        return 32 + 16 + bytes.length + 16 + 4L * offsets.length;
+    }
+}
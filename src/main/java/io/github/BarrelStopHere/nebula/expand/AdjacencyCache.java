@@ -0,0 +1,237 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 邻居缓存
+ * 以 (space, edge, 方向, VID) 为键缓存 {@link Adjacency}，按估算的内存占用做 LRU 淘汰并带 TTL，
+ * 少量热点顶点的邻居查询因此不再访问 graphd。
+ * 写入或删除某条边时，失效同一 space、同一边类型下起点和终点各方向的条目；删除顶点时失效整个 space
+ * <p>
+ * VID 按 {@link VertexLoader} 的规则比较：带引号的字符串 VID 去掉引号并反转义
+ */
+public class AdjacencyCache {
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+    // 失效计数，键为 space 或 space + 边类型，只记录发生过失效的；
+    // 查询开始前后该边类型涉及的计数之和不一致时不写入缓存，避免并发写入后缓存旧结果
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong clearGeneration = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxBytes 缓存的邻居列表合计占用的堆内存上限（估算值）
+     */
+    public AdjacencyCache(long maxBytes, long ttl, TimeUnit unit) {
+        if (maxBytes <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("maxBytes、ttl 必须大于0");
+        }
+        this.maxBytes = maxBytes;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * 未命中或已过期时返回 null
+     */
+    public Adjacency get(String space, String edgeName, EdgeDirection direction, Object vid) {
+        Key key = new Key(space, edgeName, direction, vidKey(vid));
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.createdAt < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 查询前获取，写入缓存时传回；只与 space 和边类型有关，其他边类型的写入不影响
+     */
+    public long generation(String space, String edgeName) {
+        return clearGeneration.get() + counter(space) + counter(edgeKey(space, edgeName));
+    }
+
+    /**
+     * 单个列表超过容量上限时不缓存
+     */
+    public void put(String space, String edgeName, EdgeDirection direction, Object vid, Adjacency value,
+                    long generationAtQuery) {
+        Key key = new Key(space, edgeName, direction, vidKey(vid));
+        long size = value.estimatedBytes() + key.estimatedBytes();
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            if (generation(space, edgeName) != generationAtQuery) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(value, size, System.nanoTime()));
+            bytes += size;
+            evictOverflow();
+        }
+    }
+
+    /**
+     * 失效同一 space、同一边类型下这些 VID 各方向的条目
+     */
+    public void invalidate(String space, String edgeName, Collection<?> vids) {
+        synchronized (this) {
+            generations.computeIfAbsent(edgeKey(space, edgeName), k -> new AtomicLong()).incrementAndGet();
+            for (Object vid : vids) {
+                String vidKey = vidKey(vid);
+                for (EdgeDirection direction : EdgeDirection.values()) {
+                    if (remove(new Key(space, edgeName, direction, vidKey))) {
+                        invalidations.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 失效 space 中的全部条目，用于删除顶点等无法确定涉及哪些边的写入
+     */
+    public synchronized void invalidateSpace(String space) {
+        generations.computeIfAbsent(space, k -> new AtomicLong()).incrementAndGet();
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getKey().space.equals(space)) {
+                it.remove();
+                bytes -= entry.getValue().size;
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        clearGeneration.incrementAndGet();
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * 当前缓存条目估算占用的堆内存（字节）
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            bytes -= eldest.getValue().size;
+            evictions.increment();
+        }
+    }
+
+    private boolean remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        bytes -= entry.size;
+        return true;
+    }
+
+    private long counter(String key) {
+        AtomicLong counter = generations.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private static String edgeKey(String space, String edgeName) {
+        return space + '\u0000' + edgeName;
+    }
+
+    private static String vidKey(Object vid) {
+        if (vid == null) {
+            throw new IllegalArgumentException("顶点ID不能为空");
+        }
+        return VertexLoader.key(vid);
+    }
+
+    private static final class Entry {
+        private final Adjacency value;
+        private final long size;
+        private final long createdAt;
+
+        Entry(Adjacency value, long size, long createdAt) {
+            this.value = value;
+            this.size = size;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Key {
+        private final String space;
+        private final String edgeName;
+        private final EdgeDirection direction;
+        private final String vid;
+        private final int hash;
+
+        Key(String space, String edgeName, EdgeDirection direction, String vid) {
+            this.space = space;
+            this.edgeName = edgeName;
+            this.direction = direction;
+            this.vid = vid;
+            this.hash = Objects.hash(space, edgeName, direction, vid);
+        }
+
+        /**
+         * 键和 LinkedHashMap 节点的估算占用
+         */
+        long estimatedBytes() {
+            return 64 + 40 + 2L * vid.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return direction == other.direction && vid.equals(other.vid)
+                    && edgeName.equals(other.edgeName) && space.equals(other.space);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
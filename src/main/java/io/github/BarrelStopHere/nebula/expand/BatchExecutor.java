@@ -0,0 +1,87 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.client.graph.data.ResultSet;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 批量语句并发执行
+ * 多个工作线程（含调用线程）依次领取语句执行，每条语句各自借用 session，
+ * 并发度即同时占用的 session 数
+ */
+@Slf4j
+public final class BatchExecutor {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "nebula-batch-" + THREAD_INDEX.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BatchExecutor() {
+    }
+
+    public static WriteResult execute(List<BatchStatement> statements,
+                                      Function<BatchStatement, ResultSet> executor, int parallelism) {
+        int size = statements.size();
+        if (size == 0) {
+            return WriteResult.empty();
+        }
+        ChunkResult[] results = new ChunkResult[size];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < size) {
+                results[i] = executeOne(i, statements.get(i), executor);
+            }
+        };
+
+        int workers = Math.min(Math.max(parallelism, 1), size);
+        List<Future<?>> futures = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            futures.add(WORKERS.submit(worker));
+        }
+        // 调用线程也参与执行
+        worker.run();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NebulaException("批量执行被中断");
+            } catch (ExecutionException e) {
+                throw new NebulaException("批量执行失败: " + e.getCause().getMessage());
+            }
+        }
+        return new WriteResult(Arrays.asList(results));
+    }
+
+    private static ChunkResult executeOne(int index, BatchStatement statement, Function<BatchStatement, ResultSet> executor) {
+        long start = System.nanoTime();
+        try {
+            ResultSet resultSet = executor.apply(statement);
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (resultSet == null) {
+                return new ChunkResult(index, statement.getRows(), false, latency, "无返回结果");
+            }
+            boolean succeeded = resultSet.isSucceeded();
+            return new ChunkResult(index, statement.getRows(), succeeded, latency,
+                    succeeded ? null : resultSet.getErrorMessage());
+        } catch (RuntimeException e) {
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.error("批量语句执行失败（序号：{}）: {}", index, e.getMessage());
+            return new ChunkResult(index, statement.getRows(), false, latency, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 切分后的一条批量语句
+ */
+@Getter
+@AllArgsConstructor
+public class BatchStatement {
+
+    private final String nGql;
+
+    /**
+     * 语句包含的行数
+     */
+    private final int rows;
+
+    /**
+     * 参数化语句的参数，普通语句为 null
+     */
+    private final Map<String, Object> params;
+
+    public BatchStatement(String nGql, int rows) {
+        this(nGql, rows, null);
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Data;
+
+/**
+ * 批量写入配置
+ * 大批量实体按行数和字节数切分为多条语句，在同一 space 的多个 session 上并发执行
+ */
+@Data
+public class BatchWriteConfig {
+
+    /**
+     * 单条语句最多包含的行数
+     */
+    private int maxRowsPerStatement = 500;
+
+    /**
+     * 单条语句最大字节数（UTF-8）
+     */
+    private int maxBytesPerStatement = 1024 * 1024;
+
+    /**
+     * 并发执行的语句数，即同时占用的 session 数
+     */
+    private int parallelism = 4;
+}
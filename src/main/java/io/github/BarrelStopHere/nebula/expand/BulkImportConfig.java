@@ -0,0 +1,77 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * BulkImporter 配置
+ */
+@Data
+public class BulkImportConfig {
+
+    /**
+     * 每批行数，读取、解析、写入和断点都以批为单位
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 解析线程数
+     */
+    private int parseThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /**
+     * 写入线程数，每个线程同时按 writeConfig 的并发度占用 session
+     */
+    private int writeThreads = 2;
+
+    /**
+     * 各阶段之间队列的容量（批），队列满时上游阻塞
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * 每次内存映射的文件区间大小（字节）
+     */
+    private int mapRegionBytes = 64 * 1024 * 1024;
+
+    /**
+     * 从文件开头导入时跳过的行数，例如 CSV 表头
+     */
+    private int headerLines = 0;
+
+    /**
+     * 断点文件，为 null 时不记录断点；文件存在时从记录的位置继续导入
+     */
+    private Path checkpointFile;
+
+    /**
+     * 断点最短写入间隔（毫秒）
+     */
+    private long checkpointIntervalMillis = 1000;
+
+    /**
+     * 进度日志间隔（毫秒），小于等于0时不输出
+     */
+    private long reportIntervalMillis = 10000;
+
+    /**
+     * 批次写入失败后的重试次数，重试仍失败时停止导入，断点停在该批次之前
+     */
+    private int writeRetries = 2;
+
+    /**
+     * 第 n 次重试前等待 n * retryBackoffMillis（毫秒）
+     */
+    private long retryBackoffMillis = 1000;
+
+    /**
+     * 最多打印多少条解析失败的行，超出后只计数
+     */
+    private int maxLoggedErrors = 20;
+
+    /**
+     * 写入时使用的切分与并发配置
+     */
+    private BatchWriteConfig writeConfig = new BatchWriteConfig();
+}
@@ -0,0 +1,552 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 文件批量导入
+ * 调用线程以内存映射方式按区间读取文件并切分为行批次，多个解析线程把行映射为实体，
+ * 多个写入线程批量 INSERT，各阶段之间为有界队列，下游跟不上时上游阻塞；
+ * 每个批次写入成功后推进断点（断点之前的批次均已成功），中断后重新执行会从断点继续，
+ * 断点之后已写入的批次会被重复 INSERT，结果不变；全部成功后删除断点文件。
+ * 解析失败的行记录日志后跳过，不阻止断点前进；写入失败的批次按配置重试，仍失败时停止导入，
+ * 断点停在该批次之前（之后完成的批次不再记录），结果中 {@link ImportProgress#isAborted()} 为 true
+ *
+ * @see io.github.BarrelStopHere.nebula.NebulaUtil#vertexImporter
+ * @see io.github.BarrelStopHere.nebula.NebulaUtil#edgeImporter
+ */
+@Slf4j
+public class BulkImporter<T> {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+    private static final long POLL_MILLIS = 100;
+
+    private final Path file;
+    private final LineMapper<T> mapper;
+    private final Function<List<T>, WriteResult> sink;
+    private final BulkImportConfig config;
+    private final BlockingQueue<LineBatch> lineQueue;
+    private final BlockingQueue<EntityBatch> entityQueue;
+    private final LineBatch linePill = new LineBatch(-1, 0, Collections.emptyList());
+    private final EntityBatch entityPill = new EntityBatch(-1, 0, Collections.emptyList());
+    private volatile boolean cancelled = false;
+    private volatile boolean aborted = false;
+    private volatile Consumer<ImportProgress> progressListener;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final LongAdder linesRead = new LongAdder();
+    private final AtomicLong parseErrors = new AtomicLong();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder rowsFailed = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private long fileBytes;
+    private long fileModified;
+    private volatile long startNanos;
+
+    /**
+     * 断点：seq 之前的批次均已成功，committed 为其结束位置
+     */
+    private final Object checkpointLock = new Object();
+    private final Map<Long, Long> completed = new HashMap<>();
+    private long nextSeq = 0;
+    // 第一个写入失败的批次，之后完成的批次不再记录；没有失败时为 Long.MAX_VALUE
+    private long gapSeq = Long.MAX_VALUE;
+    private volatile long committed = 0;
+    private long checkpointAt = 0;
+
+    /**
+     * @param sink 批量写入，一般为 NebulaUtil 的 insertVertex / insertEdge
+     */
+    public BulkImporter(Path file, LineMapper<T> mapper, Function<List<T>, WriteResult> sink, BulkImportConfig config) {
+        if (config.getBatchSize() <= 0 || config.getParseThreads() <= 0 || config.getWriteThreads() <= 0
+                || config.getQueueCapacity() <= 0 || config.getMapRegionBytes() <= 0) {
+            throw new IllegalArgumentException("batchSize、parseThreads、writeThreads、queueCapacity、mapRegionBytes 必须大于0");
+        }
+        if (config.getWriteRetries() < 0 || config.getRetryBackoffMillis() < 0) {
+            throw new IllegalArgumentException("writeRetries、retryBackoffMillis 不能小于0");
+        }
+        this.file = file;
+        this.mapper = mapper;
+        this.sink = sink;
+        this.config = config;
+        this.lineQueue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.entityQueue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    /**
+     * 执行导入，阻塞至文件读完且全部批次写完，或被 {@link #cancel()}，或某个批次重试后仍写入失败；
+     * 正常返回不代表全部写入成功，需检查返回结果的 {@link ImportProgress#isSucceeded()}
+     */
+    public ImportProgress run() throws IOException {
+        fileBytes = Files.size(file);
+        fileModified = Files.getLastModifiedTime(file).toMillis();
+        long offset = readCheckpoint();
+        committed = offset;
+        bytesRead.set(offset);
+        startNanos = System.nanoTime();
+        log.info("开始导入[{}]，文件大小 {} 字节，起始位置 {}", file, fileBytes, offset);
+
+        List<Thread> parsers = startThreads("parse", config.getParseThreads(), this::runParser);
+        List<Thread> writers = startThreads("write", config.getWriteThreads(), this::runWriter);
+        ScheduledExecutorService reporter = startReporter();
+        try {
+            read(offset);
+        } catch (IOException | RuntimeException e) {
+            cancelled = true;
+            throw e;
+        } finally {
+            for (int i = 0; i < parsers.size(); i++) {
+                put(lineQueue, linePill);
+            }
+            join(parsers);
+            for (int i = 0; i < writers.size(); i++) {
+                put(entityQueue, entityPill);
+            }
+            join(writers);
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+            finish();
+        }
+        ImportProgress progress = progress();
+        if (aborted) {
+            log.error("导入[{}]因批次写入失败中止，断点停在 {}: {}", file, committed, progress);
+        } else {
+            log.info("导入[{}]{}: {}", file, cancelled ? "已取消" : "结束", progress);
+        }
+        return progress;
+    }
+
+    /**
+     * 停止导入，已读取的批次不再写入，断点保留在当前位置
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 每个进度日志间隔回调一次
+     */
+    public void setProgressListener(Consumer<ImportProgress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public ImportProgress progress() {
+        long start = startNanos;
+        long elapsed = start == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new ImportProgress(fileBytes, bytesRead.get(), committed, linesRead.sum(), parseErrors.get(),
+                rowsWritten.sum(), rowsFailed.sum(), failedBatches.sum(), aborted, elapsed);
+    }
+
+    private void read(long offset) throws IOException {
+        int batchSize = config.getBatchSize();
+        int skip = offset == 0 ? config.getHeaderLines() : 0;
+        long seq = 0, batchStart = offset, position = offset;
+        List<String> lines = new ArrayList<>(batchSize);
+        // 跨区间的行，前半部分暂存在这里
+        byte[] carry = new byte[0];
+        int carryLength = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (position < fileBytes && !cancelled) {
+                int regionSize = (int) Math.min(config.getMapRegionBytes(), fileBytes - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+                int lineStart = 0;
+                for (int i = 0; i < regionSize; i++) {
+                    if (buffer.get(i) != '\n') {
+                        continue;
+                    }
+                    String line = decode(buffer, lineStart, i, carry, carryLength);
+                    carryLength = 0;
+                    lineStart = i + 1;
+                    long lineEnd = position + lineStart;
+                    if (skip > 0) {
+                        skip--;
+                        batchStart = lineEnd;
+                        continue;
+                    }
+                    lines.add(line);
+                    if (lines.size() >= batchSize) {
+                        if (!emit(seq++, lineEnd, lines)) {
+                            return;
+                        }
+                        lines = new ArrayList<>(batchSize);
+                        batchStart = lineEnd;
+                    }
+                }
+                int rest = regionSize - lineStart;
+                if (rest > 0) {
+                    if (carryLength + rest > carry.length) {
+                        carry = Arrays.copyOf(carry, Math.max(carry.length * 2, carryLength + rest));
+                    }
+                    buffer.position(lineStart);
+                    buffer.get(carry, carryLength, rest);
+                    carryLength += rest;
+                }
+                position += regionSize;
+                bytesRead.set(position - carryLength);
+            }
+            if (cancelled) {
+                return;
+            }
+            // 最后一行没有换行符
+            if (carryLength > 0 && skip <= 0) {
+                lines.add(stripCr(new String(carry, 0, carryLength, StandardCharsets.UTF_8)));
+            }
+            if (!lines.isEmpty() || batchStart < fileBytes) {
+                emit(seq, fileBytes, lines);
+            }
+            bytesRead.set(fileBytes);
+        }
+    }
+
+    private static String decode(MappedByteBuffer buffer, int start, int end, byte[] carry, int carryLength) {
+        byte[] bytes = new byte[carryLength + end - start];
+        System.arraycopy(carry, 0, bytes, 0, carryLength);
+        buffer.position(start);
+        buffer.get(bytes, carryLength, end - start);
+        return stripCr(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static String stripCr(String line) {
+        int length = line.length();
+        return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line;
+    }
+
+    private boolean emit(long seq, long endOffset, List<String> lines) {
+        linesRead.add(lines.size());
+        return put(lineQueue, new LineBatch(seq, endOffset, lines));
+    }
+
+    private void runParser() {
+        LineBatch batch;
+        while ((batch = take(lineQueue)) != null && batch != linePill) {
+            List<T> entities = new ArrayList<>(batch.lines.size());
+            for (String line : batch.lines) {
+                try {
+                    T entity = mapper.map(line);
+                    if (entity != null) {
+                        entities.add(entity);
+                    }
+                } catch (RuntimeException e) {
+                    if (parseErrors.incrementAndGet() <= config.getMaxLoggedErrors()) {
+                        log.error("导入[{}]解析失败: {}，行内容: {}", file, e.getMessage(), line);
+                    }
+                }
+            }
+            if (!put(entityQueue, new EntityBatch(batch.seq, batch.endOffset, entities))) {
+                return;
+            }
+        }
+    }
+
+    private void runWriter() {
+        EntityBatch batch;
+        while ((batch = take(entityQueue)) != null && batch != entityPill) {
+            if (write(batch.entities)) {
+                complete(batch.seq, batch.endOffset);
+            } else {
+                fail(batch.seq);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 写入一个批次，失败时整批重试（重复 INSERT 结果不变），只计入最后一次的行数
+     */
+    private boolean write(List<T> entities) {
+        if (entities.isEmpty()) {
+            return true;
+        }
+        int retries = config.getWriteRetries();
+        for (int attempt = 0; ; attempt++) {
+            boolean last = attempt >= retries || cancelled;
+            WriteResult result;
+            try {
+                result = sink.apply(entities);
+            } catch (RuntimeException e) {
+                log.error("导入[{}]批量写入失败（{} 条，第 {} 次）: {}", file, entities.size(), attempt + 1, e.getMessage());
+                if (last) {
+                    rowsFailed.add(entities.size());
+                    return false;
+                }
+                backoff(attempt + 1);
+                continue;
+            }
+            if (result.isSucceeded() || last) {
+                rowsWritten.add(result.getRowsWritten());
+                rowsFailed.add(result.getRowsFailed());
+                if (!result.isSucceeded()) {
+                    log.error("导入[{}]批量写入部分失败（第 {} 次）: {}", file, attempt + 1, result.getFailedChunks());
+                }
+                return result.isSucceeded();
+            }
+            log.warn("导入[{}]批量写入部分失败（第 {} 次），重试: {}", file, attempt + 1, result.getFailedChunks());
+            backoff(attempt + 1);
+        }
+    }
+
+    private void backoff(int attempt) {
+        long millis = attempt * config.getRetryBackoffMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+    }
+
+    /**
+     * 批次重试后仍失败：断点无法越过该批次，继续写入后续批次没有意义，停止整个导入
+     */
+    private void fail(long seq) {
+        failedBatches.increment();
+        synchronized (checkpointLock) {
+            if (seq < gapSeq) {
+                gapSeq = seq;
+                // 丢弃缺口之后已完成的记录，它们在下次从断点继续时会重新写入
+                completed.keySet().removeIf(s -> s > seq);
+            }
+        }
+        aborted = true;
+        cancelled = true;
+    }
+
+    private void complete(long seq, long endOffset) {
+        synchronized (checkpointLock) {
+            if (seq > gapSeq) {
+                return;
+            }
+            completed.put(seq, endOffset);
+            Long end;
+            while ((end = completed.remove(nextSeq)) != null) {
+                committed = end;
+                nextSeq++;
+            }
+            long now = System.currentTimeMillis();
+            if (now - checkpointAt >= config.getCheckpointIntervalMillis()) {
+                checkpointAt = now;
+                writeCheckpoint(committed);
+            }
+        }
+    }
+
+    private void finish() {
+        Path checkpointFile = config.getCheckpointFile();
+        if (checkpointFile == null) {
+            return;
+        }
+        synchronized (checkpointLock) {
+            if (!cancelled && committed >= fileBytes) {
+                try {
+                    Files.deleteIfExists(checkpointFile);
+                } catch (IOException e) {
+                    log.warn("删除断点文件[{}]失败: {}", checkpointFile, e.getMessage());
+                }
+            } else {
+                writeCheckpoint(committed);
+            }
+        }
+    }
+
+    /**
+     * 读取断点，文件大小或修改时间与断点记录不一致时从头导入
+     */
+    private long readCheckpoint() throws IOException {
+        Path checkpointFile = config.getCheckpointFile();
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            properties.load(in);
+        }
+        long size = Long.parseLong(properties.getProperty("size", "-1"));
+        long modified = Long.parseLong(properties.getProperty("modified", "-1"));
+        long offset = Long.parseLong(properties.getProperty("offset", "0"));
+        if (size != fileBytes || modified != fileModified || offset < 0 || offset > fileBytes) {
+            log.warn("断点文件[{}]与[{}]不匹配，从头导入", checkpointFile, file);
+            return 0;
+        }
+        log.info("从断点[{}]继续导入，位置 {}", checkpointFile, offset);
+        return offset;
+    }
+
+    private void writeCheckpoint(long offset) {
+        Path checkpointFile = config.getCheckpointFile();
+        if (checkpointFile == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("file", file.toAbsolutePath().toString());
+        properties.setProperty("size", String.valueOf(fileBytes));
+        properties.setProperty("modified", String.valueOf(fileModified));
+        properties.setProperty("offset", String.valueOf(offset));
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, null);
+            }
+            try {
+                Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("写入断点文件[{}]失败: {}", checkpointFile, e.getMessage());
+        }
+    }
+
+    private ScheduledExecutorService startReporter() {
+        long interval = config.getReportIntervalMillis();
+        if (interval <= 0) {
+            return null;
+        }
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nebula-import-report-" + THREAD_INDEX.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[] last = {0, System.nanoTime()};
+        reporter.scheduleAtFixedRate(() -> {
+            ImportProgress progress = progress();
+            long now = System.nanoTime();
+            double recent = (progress.getRowsWritten() - last[0]) * 1e9 / Math.max(now - last[1], 1);
+            last[0] = progress.getRowsWritten();
+            last[1] = now;
+            log.info("导入[{}] {}%，已读 {} 行，写入 {} 行（平均 {} 行/秒，当前 {} 行/秒），失败 {} 行，解析失败 {} 行",
+                    file, progress.getFileBytes() == 0 ? 100 : progress.getBytesRead() * 100 / progress.getFileBytes(),
+                    progress.getLinesRead(), progress.getRowsWritten(), (long) progress.getRowsPerSecond(),
+                    (long) recent, progress.getRowsFailed(), progress.getParseErrors());
+            Consumer<ImportProgress> listener = progressListener;
+            if (listener != null) {
+                try {
+                    listener.accept(progress);
+                } catch (RuntimeException e) {
+                    log.warn("导入进度回调异常: {}", e.getMessage());
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return reporter;
+    }
+
+    private List<Thread> startThreads(String stage, int count, Runnable task) {
+        List<Thread> threads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Thread thread = new Thread(task, "nebula-import-" + stage + "-" + THREAD_INDEX.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private void join(List<Thread> threads) {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    // 取消后各线程在一个轮询周期内退出
+                    interrupted = true;
+                    cancelled = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 放入队列，队列满时等待，取消后返回 false
+     */
+    private <E> boolean put(BlockingQueue<E> queue, E item) {
+        try {
+            while (!cancelled) {
+                if (queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+        return false;
+    }
+
+    /**
+     * 从队列取出，队列空时等待，取消后返回 null
+     */
+    private <E> E take(BlockingQueue<E> queue) {
+        try {
+            while (!cancelled) {
+                E item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item != null) {
+                    return item;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+        return null;
+    }
+
+    private static final class LineBatch {
+        private final long seq;
+        private final long endOffset;
+        private final List<String> lines;
+
+        private LineBatch(long seq, long endOffset, List<String> lines) {
+            this.seq = seq;
+            this.endOffset = endOffset;
+            this.lines = lines;
+        }
+    }
+
+    private final class EntityBatch {
+        private final long seq;
+        private final long endOffset;
+        private final List<T> entities;
+
+        private EntityBatch(long seq, long endOffset, List<T> entities) {
+            this.seq = seq;
+            this.endOffset = endOffset;
+            this.entities = entities;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 异步合并写入
+ * 多线程提交的零散实体先进入有界缓冲区，由后台线程按批次大小或停留时间合并为批量 INSERT，
+ * 缓冲区写满时提交方阻塞（背压）
+ *
+ * @see io.github.BarrelStopHere.nebula.NebulaUtil#vertexWriter
+ * @see io.github.BarrelStopHere.nebula.NebulaUtil#edgeWriter
+ */
+@Slf4j
+public class BulkWriter<T> implements Closeable {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    private final Function<List<T>, WriteResult> sink;
+    private final Function<T, Object> keyExtractor;
+    private final BulkWriterConfig config;
+    private final LinkedBlockingQueue<T> buffer;
+    private final Semaphore batchReady = new Semaphore(0);
+    private final Thread flusher;
+    private final Object writeLock = new Object();
+    // 提交方持读锁完成检查和入队，close 持写锁置位，置位后缓冲区中即为全部已接受的实体
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
+    private volatile Consumer<WriteResult> flushListener;
+
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder rowsFailed = new LongAdder();
+    private final LongAdder rowsDeduped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param sink         批量写入，一般为 NebulaUtil 的 insertVertex / insertEdge
+     * @param keyExtractor 去重键，为 null 时不去重
+     */
+    public BulkWriter(Function<List<T>, WriteResult> sink, Function<T, Object> keyExtractor, BulkWriterConfig config) {
+        if (config.getBatchSize() <= 0 || config.getBufferCapacity() <= 0 || config.getLingerMillis() <= 0) {
+            throw new IllegalArgumentException("batchSize、bufferCapacity、lingerMillis 必须大于0");
+        }
+        this.sink = sink;
+        this.keyExtractor = config.isDedup() ? keyExtractor : null;
+        this.config = config;
+        this.buffer = new LinkedBlockingQueue<>(config.getBufferCapacity());
+        this.flusher = new Thread(this::runFlusher, "nebula-bulk-writer-" + THREAD_INDEX.incrementAndGet());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 提交实体，缓冲区已满时阻塞
+     */
+    public void add(T entity) throws InterruptedException {
+        closeLock.readLock().lockInterruptibly();
+        try {
+            checkClosed();
+            buffer.put(entity);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        signalIfBatchReady();
+    }
+
+    /**
+     * 提交实体，缓冲区已满时最多等待 timeout
+     *
+     * @return 超时未能放入缓冲区时返回 false
+     */
+    public boolean offer(T entity, long timeout, TimeUnit unit) throws InterruptedException {
+        boolean accepted;
+        closeLock.readLock().lockInterruptibly();
+        try {
+            checkClosed();
+            accepted = buffer.offer(entity, timeout, unit);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        if (accepted) {
+            signalIfBatchReady();
+        }
+        return accepted;
+    }
+
+    private void signalIfBatchReady() {
+        if (buffer.size() >= config.getBatchSize() && batchReady.availablePermits() == 0) {
+            batchReady.release();
+        }
+    }
+
+    /**
+     * 同步写出调用前已提交的全部实体
+     */
+    public void flush() {
+        drainAndWrite();
+    }
+
+    /**
+     * 写完缓冲区中剩余实体后停止后台线程
+     * 等待正在入队的提交完成后才关闭，关闭前被接受的实体都会写出
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        batchReady.release();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainAndWrite();
+    }
+
+    /**
+     * 每次批量写入完成后回调
+     */
+    public void setFlushListener(Consumer<WriteResult> flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.sum();
+    }
+
+    public long getRowsDeduped() {
+        return rowsDeduped.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public int getBuffered() {
+        return buffer.size();
+    }
+
+    private void runFlusher() {
+        while (!closed) {
+            try {
+                batchReady.tryAcquire(config.getLingerMillis(), TimeUnit.MILLISECONDS);
+                batchReady.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                drainAndWrite();
+            } catch (Exception e) {
+                log.error("BulkWriter 写入失败", e);
+            }
+        }
+    }
+
+    private void drainAndWrite() {
+        synchronized (writeLock) {
+            List<T> batch = new ArrayList<>(config.getBatchSize());
+            while (buffer.drainTo(batch, config.getBatchSize()) > 0) {
+                write(dedup(batch));
+                batch = new ArrayList<>(config.getBatchSize());
+            }
+        }
+    }
+
+    private List<T> dedup(List<T> batch) {
+        if (keyExtractor == null || batch.size() < 2) {
+            return batch;
+        }
+        Map<Object, T> latest = new LinkedHashMap<>((int) (batch.size() / 0.75f) + 1);
+        for (T entity : batch) {
+            // 后到的覆盖先到的
+            latest.put(keyExtractor.apply(entity), entity);
+        }
+        if (latest.size() == batch.size()) {
+            return batch;
+        }
+        rowsDeduped.add(batch.size() - latest.size());
+        return new ArrayList<>(latest.values());
+    }
+
+    private void write(List<T> batch) {
+        WriteResult result;
+        try {
+            result = sink.apply(batch);
+        } catch (RuntimeException e) {
+            log.error("BulkWriter 批量写入失败（{} 条）: {}", batch.size(), e.getMessage());
+            rowsFailed.add(batch.size());
+            return;
+        }
+        batches.increment();
+        rowsWritten.add(result.getRowsWritten());
+        rowsFailed.add(result.getRowsFailed());
+        if (!result.isSucceeded()) {
+            log.error("BulkWriter 批量写入部分失败: {}", result.getFailedChunks());
+        }
+        Consumer<WriteResult> listener = flushListener;
+        if (listener != null) {
+            listener.accept(result);
+        }
+    }
+
+    private void checkClosed() {
+        if (closed) {
+            throw new NebulaException("BulkWriter 已关闭");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Data;
+
+/**
+ * BulkWriter 配置
+ */
+@Data
+public class BulkWriterConfig {
+
+    /**
+     * 攒够多少条实体触发一次写入
+     */
+    private int batchSize = 500;
+
+    /**
+     * 实体在缓冲区中最长停留时间（毫秒），到期即写入
+     */
+    private long lingerMillis = 50;
+
+    /**
+     * 缓冲区容量，写满后 add 阻塞等待
+     */
+    private int bufferCapacity = 10000;
+
+    /**
+     * 同一批次内相同 VID / 边键的实体只保留最后一条
+     */
+    private boolean dedup = true;
+
+    /**
+     * 写入时使用的切分与并发配置
+     */
+    private BatchWriteConfig writeConfig = new BatchWriteConfig();
+}
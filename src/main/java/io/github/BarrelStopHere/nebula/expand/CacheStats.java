@@ -0,0 +1,30 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 缓存计数快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheStats {
+
+    private final long hits;
+
+    private final long misses;
+
+    /**
+     * 因容量或过期被淘汰的条目数
+     */
+    private final long evictions;
+
+    /**
+     * 因写入被失效的条目数
+     */
+    private final long invalidations;
+
+    private final int size;
+}
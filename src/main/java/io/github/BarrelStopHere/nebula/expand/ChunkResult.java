@@ -0,0 +1,30 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 单条批量语句的执行结果
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ChunkResult {
+
+    /**
+     * 语句在本批次中的序号
+     */
+    private final int index;
+
+    private final int rows;
+
+    private final boolean succeeded;
+
+    /**
+     * 客户端耗时（毫秒），含等待 session 的时间
+     */
+    private final long latencyMillis;
+
+    private final String errorMessage;
+}
@@ -0,0 +1,75 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * CSV 行格式化
+ * 列为实体的全部字段（含 VID、起点、终点和 rank），按声明顺序，第一行为列名；
+ * null 输出为空字段，空字符串输出为 ""，与 {@link CsvLineMapper} 的解析规则一致
+ */
+public class CsvLineFormatter<T> implements LineFormatter<T> {
+
+    private final List<Field> fields;
+    private final char delimiter;
+    private final String header;
+
+    public CsvLineFormatter(Class<T> clazz, char delimiter) {
+        this.fields = new TextFields<>(clazz).fields();
+        this.delimiter = delimiter;
+        StringBuilder sb = new StringBuilder();
+        for (Field field : fields) {
+            if (sb.length() > 0) {
+                sb.append(delimiter);
+            }
+            sb.append(field.getName());
+        }
+        this.header = sb.toString();
+    }
+
+    @Override
+    public String header() {
+        return header;
+    }
+
+    @Override
+    public void format(T entity, StringBuilder sb) {
+        boolean first = true;
+        for (Field field : fields) {
+            if (!first) {
+                sb.append(delimiter);
+            }
+            first = false;
+            Object value = AbstractConvert.readField(field, entity);
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                appendText(sb, value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            }
+        }
+    }
+
+    private void appendText(StringBuilder sb, String text) {
+        boolean quote = text.isEmpty();
+        for (int i = 0, n = text.length(); i < n && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == delimiter || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            sb.append(text);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 行映射
+ * 列按名称对应实体字段，实体中不存在的列忽略；字段可用双引号包裹，引号内的 "" 表示一个引号，
+ * 不支持跨行的字段；未加引号的空字段写入 null
+ */
+public class CsvLineMapper<T> implements LineMapper<T> {
+
+    private final TextFields<T> fields;
+    private final Field[] columns;
+    private final char delimiter;
+
+    public CsvLineMapper(Class<T> clazz, String[] columnNames, char delimiter) {
+        this.fields = new TextFields<>(clazz);
+        this.delimiter = delimiter;
+        this.columns = new Field[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columns[i] = columnNames[i] == null ? null : fields.field(columnNames[i].trim());
+        }
+    }
+
+    /**
+     * 以文件第一行作为列名，导入时需设置 {@link BulkImportConfig#setHeaderLines(int)} 为 1
+     */
+    public static <T> CsvLineMapper<T> fromHeader(Path file, Class<T> clazz, char delimiter) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new NebulaException("文件[" + file + "]为空，无法读取表头");
+            }
+            if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+                header = header.substring(1);
+            }
+            List<String> names = split(header, delimiter);
+            return new CsvLineMapper<>(clazz, names.toArray(new String[0]), delimiter);
+        }
+    }
+
+    @Override
+    public T map(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        List<String> values = split(line, delimiter);
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException("列数不匹配，期望 " + columns.length + "，实际 " + values.size());
+        }
+        T entity = fields.newInstance();
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != null) {
+                TextFields.set(entity, columns[i], values.get(i));
+            }
+        }
+        return entity;
+    }
+
+    static List<String> split(String line, char delimiter) {
+        List<String> values = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        int i = 0, n = line.length();
+        while (true) {
+            if (i < n && line.charAt(i) == '"') {
+                sb.setLength(0);
+                i++;
+                while (true) {
+                    if (i >= n) {
+                        throw new IllegalArgumentException("引号未闭合");
+                    }
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < n && line.charAt(i) == '"') {
+                            sb.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        sb.append(c);
+                    }
+                }
+                values.add(sb.toString());
+                if (i < n && line.charAt(i) != delimiter) {
+                    throw new IllegalArgumentException("引号后应为分隔符，位置 " + i);
+                }
+            } else {
+                int end = line.indexOf(delimiter, i);
+                if (end < 0) {
+                    end = n;
+                }
+                values.add(end == i ? null : line.substring(i, end));
+                i = end;
+            }
+            if (i >= n) {
+                return values;
+            }
+            // 跳过分隔符
+            i++;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 批量删除语句构建
+ * 多个 VID / 边键合并到一条 DELETE 中，按行数和字节数切分；VID 按原样拼接，与插入时一致
+ */
+public final class DeleteConvert {
+
+    private DeleteConvert() {
+    }
+
+    /**
+     * DELETE VERTEX id, id, ... [WITH EDGE]
+     *
+     * @param withEdge 同时删除顶点的出边和入边
+     */
+    public static List<BatchStatement> vertices(Collection<?> ids, boolean withEdge, int maxRows, int maxBytes) {
+        List<?> list = ids instanceof List ? (List<?>) ids : new ArrayList<>(ids);
+        return NGqlEncoder.encode("DELETE VERTEX ", ',', withEdge ? " WITH EDGE" : "", list, (id, sb) -> {
+            if (id == null) {
+                throw new IllegalArgumentException("顶点ID不能为空");
+            }
+            sb.append(id);
+            return true;
+        }, maxRows, maxBytes);
+    }
+
+    /**
+     * DELETE EDGE name src->dst[@rank], ...，边键取自实体的 @EdgeFrom、@EdgeTo 和 @EdgeRank 字段
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<BatchStatement> edges(List<T> entities, String edgeName, int maxRows, int maxBytes) {
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Function<T, Object> keyOf = EdgeConvert.keyOf((Class<T>) entities.get(0).getClass());
+        return NGqlEncoder.encode("DELETE EDGE " + edgeName + " ", entities, (entity, sb) -> {
+            List<?> key = (List<?>) keyOf.apply(entity);
+            Object from = key.get(0), to = key.get(1), rank = key.get(2);
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("边起点或终点字段为空");
+            }
+            sb.append(from).append("->").append(to);
+            if (rank != null) {
+                sb.append("@").append(rank);
+            }
+            return true;
+        }, maxRows, maxBytes);
+    }
+}
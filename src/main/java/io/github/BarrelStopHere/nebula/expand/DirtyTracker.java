@@ -0,0 +1,138 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 脏字段跟踪
+ * 记录实体在读取或写入后的属性快照，写回时只提交与快照不同的属性；
+ * 快照只保存属性引用，可变类型的属性值需要整体替换而不是原地修改，否则无法识别变化
+ * <p>
+ * 实体按引用（而非 equals）识别，且只被弱引用：实体不再被业务代码引用后，其快照随之回收，
+ * 跟踪器不会让实体常驻内存。快照本身在实体回收后的下一次调用时清理；
+ * 不再需要的实体可用 {@link #forget} 或 {@link #clear} 提前释放。
+ * 建议跟踪器与一次业务处理（读取、修改、写回）同生命周期，而不是全局长期持有
+ */
+public class DirtyTracker<T> {
+
+    private final UpdateConvert<T> convert;
+    // 只在持有 this 时访问
+    private final Map<IdentityKey, Object[]> snapshots = new HashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    public DirtyTracker(Class<T> clazz) {
+        this.convert = new UpdateConvert<>(clazz);
+    }
+
+    public void track(T entity) {
+        Object[] snapshot = convert.props(entity);
+        synchronized (this) {
+            expunge();
+            snapshots.put(new IdentityKey(entity, collected), snapshot);
+        }
+    }
+
+    public void track(Collection<? extends T> entities) {
+        for (T entity : entities) {
+            track(entity);
+        }
+    }
+
+    public synchronized void forget(T entity) {
+        expunge();
+        snapshots.remove(new IdentityKey(entity, null));
+    }
+
+    /**
+     * 丢弃全部快照
+     */
+    public synchronized void clear() {
+        snapshots.clear();
+        while (collected.poll() != null) {
+            // 已不在表中，只清空队列
+        }
+    }
+
+    /**
+     * 当前保留快照的实体数，不含已回收但尚未清理的
+     */
+    public synchronized int size() {
+        expunge();
+        return snapshots.size();
+    }
+
+    /**
+     * 与快照不同的属性名，未跟踪的实体返回全部属性
+     */
+    public List<String> dirtyFields(T entity) {
+        String[] propNames = convert.getPropNames();
+        Object[] snapshot;
+        synchronized (this) {
+            expunge();
+            snapshot = snapshots.get(new IdentityKey(entity, null));
+        }
+        if (snapshot == null) {
+            List<String> all = new ArrayList<>(propNames.length);
+            Collections.addAll(all, propNames);
+            return all;
+        }
+        List<String> dirty = new ArrayList<>();
+        for (int i = 0; i < propNames.length; i++) {
+            if (!Objects.deepEquals(snapshot[i], convert.prop(entity, i))) {
+                dirty.add(propNames[i]);
+            }
+        }
+        return dirty;
+    }
+
+    UpdateConvert<T> getConvert() {
+        return convert;
+    }
+
+    /**
+     * 清理实体已被回收的快照
+     */
+    private void expunge() {
+        Reference<?> ref;
+        while ((ref = collected.poll()) != null) {
+            snapshots.remove(ref);
+        }
+    }
+
+    /**
+     * 弱引用实体的键，按引用相等；实体回收后只与自身相等，以便从表中移除
+     */
+    private static final class IdentityKey extends WeakReference<Object> {
+        private final int hash;
+
+        IdentityKey(Object entity, ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            this.hash = System.identityHashCode(entity);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IdentityKey)) {
+                return false;
+            }
+            Object entity = get();
+            return entity != null && entity == ((IdentityKey) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
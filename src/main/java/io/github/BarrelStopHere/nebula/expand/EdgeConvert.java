@@ -7,8 +7,14 @@ import io.github.BarrelStopHere.nebula.annotation.NebulaIgnore;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.StringJoiner;
+import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 public class EdgeConvert<T> extends AbstractConvert {
@@ -16,6 +22,10 @@ public class EdgeConvert<T> extends AbstractConvert {
     private Field fromField;
     private Field toField;
     private Field rankField;
+    /**
+     * 编译期生成的映射类，存在时不走反射
+     */
+    private EntityMapper<T> mapper;
     private final List<T> entityList;
 
     public EdgeConvert(List<T> entityList) {
@@ -25,43 +35,140 @@ public class EdgeConvert<T> extends AbstractConvert {
     public String build(String edgeName) {
         if (entityList.isEmpty()) return "";
         buildField(entityList.get(0));
-        StringBuilder sb = new StringBuilder();
-        sb.append("INSERT EDGE ").append(edgeName).append("(").append(fieldStr()).append(") VALUES ");
-        StringJoiner valuesSj = new StringJoiner(",");
-        for (T entity : entityList) {
-            valuesSj.add(buildParam(entity));
+        try {
+            String header = "INSERT EDGE " + edgeName + "(" + fieldStr() + ") VALUES ";
+            return NGqlEncoder.encodeAll(header, entityList, this::appendParam);
+        } finally {
+            closeField();
+        }
+    }
+
+    /**
+     * 构建按行数和字节数切分后的多条插入语句
+     */
+    public List<BatchStatement> build(String edgeName, int maxRows, int maxBytes) {
+        if (entityList.isEmpty()) return Collections.emptyList();
+        buildField(entityList.get(0));
+        try {
+            String header = "INSERT EDGE " + edgeName + "(" + fieldStr() + ") VALUES ";
+            return NGqlEncoder.encode(header, entityList, this::appendParam, maxRows, maxBytes);
+        } finally {
+            closeField();
+        }
+    }
+
+    /**
+     * 构建参数化的批量插入语句，值通过参数传递，不拼接进语句文本
+     */
+    public List<BatchStatement> buildParameterized(String edgeName, int maxRows) {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("maxRowsPerStatement 必须大于0");
+        }
+        if (entityList.isEmpty()) return Collections.emptyList();
+        buildField(entityList.get(0));
+        String header = "INSERT EDGE " + edgeName + "(" + fieldStr() + ") VALUES ";
+        boolean ranked = mapper != null ? mapper.hasRank() : rankField != null;
+        InsertTemplate.RowKey rowKey = ranked ? InsertTemplate.RowKey.RANKED_EDGE : InsertTemplate.RowKey.EDGE;
+        // 生成的映射类不填充 fieldList，列数以映射类的属性为准
+        int cols = mapper != null ? mapper.propNames().length : fieldList.size(), size = entityList.size();
+        List<BatchStatement> statements = new ArrayList<>(size / maxRows + 1);
+        try {
+            for (int start = 0; start < size; start += maxRows) {
+                int rows = Math.min(maxRows, size - start);
+                InsertTemplate template = InsertTemplate.of(header, rows, cols, rowKey);
+                Map<String, Object> params = new HashMap<>((int) (rows * (cols + 3) / 0.75f) + 1);
+                for (int r = 0; r < rows; r++) {
+                    T entity = entityList.get(start + r);
+                    Object from = mapper != null ? mapper.from(entity) : fromField.get(entity);
+                    Object to = mapper != null ? mapper.to(entity) : toField.get(entity);
+                    if (from == null || to == null) {
+                        throw new IllegalArgumentException("边起点或终点字段为空");
+                    }
+                    String[] keyParams = template.getKeyParams()[r];
+                    params.put(keyParams[0], from);
+                    params.put(keyParams[1], to);
+                    if (ranked) {
+                        params.put(keyParams[2], mapper != null ? mapper.rank(entity) : rankField.get(entity));
+                    }
+                    if (mapper != null) {
+                        mapper.putProps(entity, template.getPropParams()[r], params);
+                    } else {
+                        putProps(entity, template.getPropParams()[r], params);
+                    }
+                }
+                statements.add(new BatchStatement(template.getNGql(), rows, params));
+            }
+        } catch (IllegalAccessException e) {
+            throw new NebulaException("构建边参数失败: " + e.getMessage());
+        } finally {
+            closeField();
         }
-        sb.append(valuesSj);
-        closeField();
-        return sb.toString();
+        return statements;
     }
 
-    private String buildParam(T entity) {
-        StringBuilder sb = new StringBuilder();
+    /**
+     * 以 (起点, 终点, rank) 作为实体键
+     */
+    public static <T> Function<T, Object> keyOf(Class<T> clazz) {
+        EntityMapper<T> entityMapper = EntityMappers.of(clazz);
+        if (entityMapper != null && entityMapper.isEdge()) {
+            return entity -> Arrays.asList(entityMapper.from(entity), entityMapper.to(entity),
+                    entityMapper.rank(entity));
+        }
+        Field from = annotatedField(clazz, EdgeFrom.class);
+        Field to = annotatedField(clazz, EdgeTo.class);
+        Field rank = annotatedField(clazz, EdgeRank.class);
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("边必须包含起点（@EdgeFrom）和终点（@EdgeTo）字段");
+        }
+        return entity -> Arrays.asList(readField(from, entity), readField(to, entity),
+                rank == null ? null : readField(rank, entity));
+    }
+
+    /**
+     * 把一行 VALUES 直接追加到语句缓冲区
+     */
+    private boolean appendParam(T entity, StringBuilder sb) {
         try {
-            Object from = fromField.get(entity);
-            Object to = toField.get(entity);
+            Object from = mapper != null ? mapper.from(entity) : fromField.get(entity);
+            Object to = mapper != null ? mapper.to(entity) : toField.get(entity);
             if (from == null || to == null) {
                 throw new IllegalArgumentException("边起点或终点字段为空");
             }
             sb.append(from).append("->").append(to);
-            if (rankField != null) {
-                Object rank = rankField.get(entity);
+            if (mapper != null ? mapper.hasRank() : rankField != null) {
+                Object rank = mapper != null ? mapper.rank(entity) : rankField.get(entity);
                 sb.append("@").append(rank);
             }
             sb.append(":(");
-            appendNGql(entity, sb);
+            if (mapper != null) {
+                mapper.appendProps(entity, sb);
+            } else {
+                appendNGql(entity, sb);
+            }
             sb.append(")");
-            return sb.toString();
+            return true;
         } catch (IllegalAccessException e) {
             log.error("构建边参数失败: {}", e.getMessage());
-            return null;
+            return false;
         }
     }
 
+    @SuppressWarnings("unchecked")
     private void buildField(T entity) {
+        fieldList.clear();
+        mapper = EntityMappers.of((Class<T>) entity.getClass());
+        if (mapper != null) {
+            if (!mapper.isEdge()) {
+                throw new IllegalArgumentException("边必须包含起点（@EdgeFrom）和终点（@EdgeTo）字段");
+            }
+            return;
+        }
         Field[] fields = entity.getClass().getDeclaredFields();
         for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
             field.setAccessible(true);
             if (field.isAnnotationPresent(EdgeFrom.class)) {
                 fromField = field;
@@ -84,8 +191,16 @@ public class EdgeConvert<T> extends AbstractConvert {
         }
     }
 
+    @Override
+    protected String fieldStr() {
+        return mapper != null ? String.join(",", mapper.propNames()) : super.fieldStr();
+    }
+
     @Override
     protected void childCloseField() {
+        if (mapper != null) {
+            return;
+        }
         fromField.setAccessible(false);
         toField.setAccessible(false);
         if (rankField != null) rankField.setAccessible(false);
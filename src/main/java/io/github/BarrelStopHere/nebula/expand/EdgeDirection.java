@@ -0,0 +1,35 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+/**
+ * 邻居查询的遍历方向，对应 GO 语句的 OVER 子句
+ */
+public enum EdgeDirection {
+
+    /**
+     * 出边
+     */
+    OUT(""),
+
+    /**
+     * 入边
+     */
+    IN(" REVERSELY"),
+
+    /**
+     * 出边和入边
+     */
+    BOTH(" BIDIRECT");
+
+    private final String clause;
+
+    EdgeDirection(String clause) {
+        this.clause = clause;
+    }
+
+    /**
+     * 追加在 OVER edge 之后的关键字
+     */
+    public String clause() {
+        return clause;
+    }
+}
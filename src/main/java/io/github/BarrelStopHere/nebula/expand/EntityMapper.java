@@ -0,0 +1,65 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Value;
+
+import java.util.Map;
+
+/**
+ * 实体映射，由 {@link NebulaMapperProcessor} 在编译期为实体生成，
+ * 直接读写字段或访问器，不经过反射
+ *
+ * @see EntityMappers#of(Class)
+ */
+public interface EntityMapper<T> {
+
+    Class<T> entityType();
+
+    /**
+     * 是否含 @Vid 字段
+     */
+    boolean isVertex();
+
+    /**
+     * 是否含 @EdgeFrom 和 @EdgeTo 字段
+     */
+    boolean isEdge();
+
+    boolean hasRank();
+
+    /**
+     * 属性名，顺序与 {@link #appendProps} 和 {@link #putProps} 一致
+     */
+    String[] propNames();
+
+    Object vid(T entity);
+
+    Object from(T entity);
+
+    Object to(T entity);
+
+    Object rank(T entity);
+
+    /**
+     * 读取第 index 个属性的值，下标与 {@link #propNames()} 一致
+     */
+    Object prop(T entity, int index);
+
+    /**
+     * 按 nGql 字面量格式追加属性值，逗号分隔
+     */
+    void appendProps(T entity, StringBuilder sb);
+
+    /**
+     * 把属性值按参数名放入参数表
+     */
+    void putProps(T entity, String[] paramNames, Map<String, Object> params);
+
+    T newInstance();
+
+    /**
+     * 可写字段的下标，不存在时返回 -1
+     */
+    int fieldIndex(String fieldName);
+
+    void set(T entity, int fieldIndex, Value value);
+}
@@ -0,0 +1,60 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编译期生成的映射类查找
+ * 映射类与实体同包，类名为 实体类名（嵌套类以 _ 连接）+ {@link #SUFFIX}；
+ * 找不到时返回 null，调用方退回反射
+ */
+@Slf4j
+public final class EntityMappers {
+
+    public static final String SUFFIX = "_NebulaMapper";
+
+    private static final Map<Class<?>, Optional<EntityMapper<?>>> MAPPERS = new ConcurrentHashMap<>();
+
+    private EntityMappers() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMapper<T> of(Class<T> clazz) {
+        return (EntityMapper<T>) MAPPERS.computeIfAbsent(clazz, EntityMappers::load).orElse(null);
+    }
+
+    private static Optional<EntityMapper<?>> load(Class<?> clazz) {
+        String name = clazz.getName();
+        Package pkg = clazz.getPackage();
+        String prefix = pkg == null || pkg.getName().isEmpty() ? "" : pkg.getName() + ".";
+        String mapperName = prefix + name.substring(prefix.length()).replace('$', '_') + SUFFIX;
+        try {
+            Class<?> mapperClass = Class.forName(mapperName, true, clazz.getClassLoader());
+            EntityMapper<?> mapper = (EntityMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+            if (mapper.entityType() == clazz) {
+                return Optional.of(mapper);
+            }
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        } catch (Exception | LinkageError e) {
+            log.warn("加载映射类[{}]失败，使用反射: {}", mapperName, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 参数值转换：枚举取名称，字符取字符串，其余保持原样
+     */
+    public static Object param(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Character) {
+            return value.toString();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Data;
+
+/**
+ * ExpandSessionManager 的扩展配置
+ * 与 SessionsManagerConfig 配合使用，只包含 nebula-java 本身没有的参数
+ */
+@Data
+public class ExpandPoolConfig {
+
+    /**
+     * 池中无可用 session 时，借用方最长等待时间（毫秒），0 表示不等待
+     */
+    private long borrowTimeoutMillis = 3000;
+
+    /**
+     * 最少保持的空闲 session 数，启动时按此数量预建
+     */
+    private int minIdle = 10;
+
+    /**
+     * 初始化时同步预建的 session 数，小于0时取 minIdle，其余由后台维护任务补足
+     */
+    private int warmupSize = -1;
+
+    /**
+     * 初始化时并发创建 session 的线程数
+     */
+    private int initParallelism = 4;
+
+    /**
+     * 是否延迟初始化：为 true 时首次借用 session 才建立连接池
+     */
+    private boolean lazyInit = false;
+
+    /**
+     * 使用 {@link SharedSessionPool} 时为该 space 预留的 session 数，不会被其他 space 占用
+     */
+    private int reservedSessions = 0;
+
+    /**
+     * 最多保持的空闲 session 数，超出的空闲 session 会被回收，小于0表示不限制
+     */
+    private int maxIdle = -1;
+
+    /**
+     * session 总数上限，小于0时取 NebulaPoolConfig 的 maxConnSize，且不会超过 maxConnSize
+     */
+    private int maxTotal = -1;
+
+    /**
+     * 空闲超过该时长（毫秒）的 session 在借出前先校验，0 表示不校验
+     */
+    private long validateAfterIdleMillis = 30 * 1000;
+
+    /**
+     * 空闲超过该时长（毫秒）且空闲数多于 minIdle 时回收，0 表示不回收
+     */
+    private long idleEvictMillis = 10 * 60 * 1000;
+
+    /**
+     * 每个空闲 session 的健康检查间隔（毫秒）
+     */
+    private long healthCheckIntervalMillis = 5 * 60 * 1000;
+
+    /**
+     * 后台维护任务的执行间隔（毫秒），健康检查分摊到每次维护中进行
+     */
+    private long maintenanceIntervalMillis = 5 * 1000;
+
+    /**
+     * 每次维护最多检查的 session 数
+     */
+    private int probesPerRun = 2;
+
+    /**
+     * 多个 graphd 之间的路由策略
+     */
+    private RoutingPolicy routingPolicy = RoutingPolicy.EWMA;
+
+    /**
+     * 耗时指数加权平均的衰减系数，越大越看重最近的耗时
+     */
+    private double latencyDecay = 0.2;
+
+    /**
+     * 耗时估计的半衰期（毫秒）：节点长时间没有新样本时，估计值按此向0衰减，
+     * 使偶发变慢的节点重新获得流量，0 表示不衰减
+     */
+    private long latencyHalfLifeMillis = 10 * 1000;
+
+    /**
+     * 节点连续失败多少次后摘除
+     */
+    private int ejectAfterFailures = 3;
+
+    /**
+     * 节点摘除后多久（毫秒）重新探测
+     */
+    private long ejectMillis = 30 * 1000;
+}
@@ -1,6 +1,7 @@
 package io.github.BarrelStopHere.nebula.expand;
 
 import com.vesoft.nebula.client.graph.SessionsManagerConfig;
+import com.vesoft.nebula.client.graph.data.HostAddress;
 import com.vesoft.nebula.client.graph.data.ResultSet;
 import com.vesoft.nebula.client.graph.exception.AuthFailedException;
 import com.vesoft.nebula.client.graph.exception.ClientServerIncompatibleException;
@@ -10,43 +11,110 @@ import com.vesoft.nebula.client.graph.net.NebulaPool;
 import com.vesoft.nebula.client.graph.net.Session;
 import lombok.extern.slf4j.Slf4j;
 
-import java.net.UnknownHostException;
-import java.util.BitSet;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 扩展类
  * 提供release方法，供销毁问题session
+ * <p>
+ * session 按槽位存放，空闲 session 放在无锁队列中，借出数量由信号量限制，
+ * 池耗尽时借用方最多等待 {@link ExpandPoolConfig#getBorrowTimeoutMillis()}
+ * <p>
+ * 空闲队列后进先出，最近用过的 session 优先借出，长期空闲的沉在队尾；
+ * 后台维护任务从队尾检查空闲 session：超过 maxIdle 或空闲过久的回收，
+ * 健康检查分摊到每次维护中，只检查空闲 session，不碰已借出的
+ * <p>
+ * 配置多个 graphd 时每个节点一个子池，借用时按 {@link RoutingPolicy} 选择节点，
+ * 连续失败的节点被摘除，到期后由维护任务探测恢复
+ * <p>
+ * 初始 session 并发创建；开启 {@link ExpandPoolConfig#isLazyInit()} 时首次借用才建立连接池
+ * <p>
+ * 使用 {@link SharedSessionPool} 时多个 space 共用连接与 session 名额，
+ * 名额耗尽时接管其他 space 的空闲 session 并切换 space
  *
  * @see com.vesoft.nebula.client.graph.net.SessionsManager
  */
 @Slf4j
 public class ExpandSessionManager {
 
+    /**
+     * 等待共享名额期间，每隔该时长（毫秒）重新尝试接管其他 space 的空闲 session
+     */
+    private static final long ADOPT_RETRY_MILLIS = 10;
+
     private final SessionsManagerConfig config;
-    private NebulaPool pool;
-    private final CopyOnWriteArrayList<ExpandSessionWrapper> sessionList;
-    private BitSet canUseBitSet;
+    private final ExpandPoolConfig expandConfig;
+    private final SharedSessionPool sharedPool;
+    private List<HostPool> hosts;
+    private AtomicReferenceArray<ExpandSessionWrapper> slots;
+    private final ConcurrentLinkedQueue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+    private Semaphore permits;
     private final ScheduledExecutorService heartbeatExecutor;
-    private boolean isClose = false;
+    private volatile boolean isClose = false;
     private volatile boolean isInitialized = false;
-    private static final long HEARTBEAT_INTERVAL = 5 * 60;
-    private static final int INITIAL_SESSIONS = 10;
+    private int maxConnSize;
+    private int minIdle;
+    private int maxIdle;
+    private int reserved;
+    private long ejectNanos;
+    private long halfLifeNanos;
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder replacedCount = new LongAdder();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowTimeoutCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder switchedCount = new LongAdder();
     private final String USE_SPACE;
 
     public ExpandSessionManager(SessionsManagerConfig config) {
+        this(config, new ExpandPoolConfig());
+    }
+
+    public ExpandSessionManager(SessionsManagerConfig config, ExpandPoolConfig expandConfig) {
+        this(config, expandConfig, null);
+    }
+
+    /**
+     * @param sharedPool 多个 space 共享的连接池，为 null 时独占连接池
+     */
+    public ExpandSessionManager(SessionsManagerConfig config, ExpandPoolConfig expandConfig,
+                                SharedSessionPool sharedPool) {
         this.config = config;
-        this.sessionList = new CopyOnWriteArrayList<>();
+        this.expandConfig = expandConfig;
+        this.sharedPool = sharedPool;
         this.heartbeatExecutor = Executors.newScheduledThreadPool(1);
         this.USE_SPACE = "USE " + config.getSpaceName();
         checkConfig();
+        resolveLimits();
+        if (sharedPool != null) {
+            sharedPool.reserve(reserved);
+            sharedPool.register(this);
+        }
         try {
-            init();
+            if (!expandConfig.isLazyInit()) {
+                initialize();
+            }
         } catch (RuntimeException e) {
-            throw new RuntimeException("Failed to initialize ExpandSessionManager", e);
+            if (sharedPool != null) {
+                sharedPool.unregister(this);
+                sharedPool.unreserve(reserved);
+            }
+            throw e;
         }
     }
 
@@ -58,109 +126,525 @@ public class ExpandSessionManager {
         if (config.getSpaceName().isEmpty()) {
             throw new RuntimeException("Empty space name");
         }
+
+        if (expandConfig.getBorrowTimeoutMillis() < 0) {
+            throw new RuntimeException("Borrow timeout must not be negative");
+        }
+
+        if (expandConfig.getMinIdle() < 0
+                || (expandConfig.getMaxIdle() >= 0 && expandConfig.getMaxIdle() < expandConfig.getMinIdle())) {
+            throw new RuntimeException("Invalid idle limits: minIdle must be in [0, maxIdle]");
+        }
+
+        if (expandConfig.getMaintenanceIntervalMillis() <= 0) {
+            throw new RuntimeException("Maintenance interval must be positive");
+        }
+
+        if (expandConfig.getEjectAfterFailures() <= 0) {
+            throw new RuntimeException("Eject threshold must be positive");
+        }
+
+        if (expandConfig.getReservedSessions() < 0) {
+            throw new RuntimeException("Reserved sessions must not be negative");
+        }
+    }
+
+    private void resolveLimits() {
+        maxConnSize = config.getPoolConfig().getMaxConnSize();
+        if (expandConfig.getMaxTotal() >= 0) {
+            maxConnSize = Math.min(expandConfig.getMaxTotal(), maxConnSize);
+        }
+        minIdle = Math.min(expandConfig.getMinIdle(), maxConnSize);
+        maxIdle = expandConfig.getMaxIdle() < 0 ? maxConnSize : expandConfig.getMaxIdle();
+        reserved = sharedPool == null ? 0 : Math.min(expandConfig.getReservedSessions(), maxConnSize);
+        ejectNanos = TimeUnit.MILLISECONDS.toNanos(expandConfig.getEjectMillis());
+        halfLifeNanos = TimeUnit.MILLISECONDS.toNanos(expandConfig.getLatencyHalfLifeMillis());
+    }
+
+    /**
+     * 建立连接池，延迟初始化时由首次借用触发，失败后下次借用会重试
+     */
+    private void initialize() {
+        if (isInitialized) {
+            return;
+        }
+        synchronized (this) {
+            if (isInitialized) {
+                return;
+            }
+            checkClose();
+            try {
+                init();
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Failed to initialize ExpandSessionManager", e);
+            }
+        }
     }
 
     private void init() throws RuntimeException {
+        freeSlots.clear();
+        slots = new AtomicReferenceArray<>(maxConnSize);
+        for (int i = 0; i < maxConnSize; i++) {
+            freeSlots.offer(i);
+        }
+        permits = new Semaphore(maxConnSize);
+
+        // 每个 graphd 一个子池，初始化失败的节点先摘除，由维护任务探测恢复
+        List<HostPool> hostPools = new ArrayList<>();
+        boolean anyAvailable = false;
+        for (HostAddress address : config.getAddresses()) {
+            HostPool host = new HostPool(hostPools.size(), address, sharedPool);
+            if (host.ensurePool(config.getPoolConfig()) != null) {
+                anyAvailable = true;
+            } else {
+                host.eject(ejectNanos);
+            }
+            hostPools.add(host);
+        }
+        if (!anyAvailable) {
+            hostPools.forEach(HostPool::close);
+            throw new RuntimeException("Init pool failed: services are broken.");
+        }
+        hosts = Collections.unmodifiableList(hostPools);
+
+        // 初始化时预建 session，不足 minIdle 的部分由维护任务补足
+        int warmup = expandConfig.getWarmupSize() < 0 ? minIdle : Math.min(expandConfig.getWarmupSize(), maxConnSize);
+        initializeSessions(warmup);
+        isInitialized = true;
+
+        // 启动维护任务：健康检查、空闲回收、节点探测、补足 minIdle
+        long interval = expandConfig.getMaintenanceIntervalMillis();
+        heartbeatExecutor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void initializeSessions(int count) {
+        log.info("Initializing {} sessions for space {}...", count, config.getSpaceName());
+        int parallelism = Math.min(Math.max(expandConfig.getInitParallelism(), 1), count);
+        if (parallelism <= 1) {
+            for (int i = 0; i < count; i++) {
+                openInitialSession();
+            }
+            return;
+        }
+        // 每个 session 都要一次登录和 USE 往返，并发创建以缩短启动时间
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
         try {
-            pool = new NebulaPool();
-            if (!pool.init(config.getAddresses(), config.getPoolConfig())) {
-                throw new RuntimeException("Init pool failed: services are broken.");
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+            for (int i = 0; i < count; i++) {
+                futures[i] = CompletableFuture.runAsync(this::openInitialSession, executor);
             }
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
 
-            int maxConnSize = config.getPoolConfig().getMaxConnSize();
-            canUseBitSet = new BitSet(maxConnSize);
-            canUseBitSet.clear();
+    private void openInitialSession() {
+        HostPool host = route();
+        try {
+            host.getIdleQueue().offerLast(openSession(host));
+        } catch (Exception e) {
+            log.error("创建初始 session 失败", e);
+        }
+    }
 
-            // 启动心跳检测任务
-            heartbeatExecutor.scheduleAtFixedRate(this::checkSessions, 0, HEARTBEAT_INTERVAL, TimeUnit.SECONDS);
-            isInitialized = true;
+    private ExpandSessionWrapper openSession(HostPool host) throws ClientServerIncompatibleException {
+        return openSession(host, false);
+    }
+
+    /**
+     * 在空闲槽位上创建一个新 session 并切换到当前 space，返回的 session 处于未借出状态
+     *
+     * @param adopt 共享名额耗尽时是否接管其他 space 的空闲 session，只在借用时开启，维护任务不争抢
+     */
+    private ExpandSessionWrapper openSession(HostPool host, boolean adopt) throws ClientServerIncompatibleException {
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            throw new RuntimeException("The SessionsManager does not have available sessions.");
+        }
+        if (!reserveSession()) {
+            try {
+                if (!adopt) {
+                    throw new RuntimeException("The shared session pool does not have available sessions.");
+                }
+                ExpandSessionWrapper adopted = awaitShared(slot);
+                if (adopted != null) {
+                    return adopted;
+                }
+                // 等到了共享名额，继续新建
+            } catch (RuntimeException e) {
+                freeSlots.offer(slot);
+                throw e;
+            }
+        }
+        boolean success = false;
+        try {
+            NebulaPool pool = host.getPool();
+            if (pool == null) {
+                throw new RuntimeException("Graph host " + host.getAddress() + " is not available.");
+            }
+            Session session = pool.getSession(
+                    config.getUserName(), config.getPassword(), config.getReconnect());
+            ResultSet resultSet = session.execute(USE_SPACE);
+            if (!resultSet.isSucceeded()) {
+                session.release();
+                throw new RuntimeException(
+                        "Switch space `"
+                                + config.getSpaceName()
+                                + "' failed: "
+                                + resultSet.getErrorMessage());
+            }
+            ExpandSessionWrapper sessionWrapper = new ExpandSessionWrapper(session, slot, host.getIndex());
+            slots.set(slot, sessionWrapper);
+            createdCount.increment();
+            host.recordSuccess();
+            success = true;
+            return sessionWrapper;
+        } catch (AuthFailedException | NotValidConnectionException | IOErrorException e) {
+            throw new RuntimeException("Get session failed: " + e.getMessage());
+        } finally {
+            if (!success) {
+                freeSlots.offer(slot);
+                releaseSession();
+                recordFailure(host);
+            }
+        }
+    }
 
-            // 初始化时创建初始 session
-            initializeSessions(maxConnSize);
-        } catch (UnknownHostException e) {
-            throw new RuntimeException("Init the pool failed: " + e.getMessage());
+    /**
+     * 占用一个 session 名额：预留之内直接占用，超出预留的部分向共享池申请
+     */
+    private boolean reserveSession() {
+        int count = sessionCount.incrementAndGet();
+        if (sharedPool == null || count <= reserved || sharedPool.tryAcquire()) {
+            return true;
         }
+        sessionCount.decrementAndGet();
+        return false;
     }
 
-    private void initializeSessions(int maxConnSize) {
-        int targetCount = Math.min(INITIAL_SESSIONS, maxConnSize);
-        log.info("Initializing {} sessions...", targetCount);
+    private void releaseSession() {
+        int count = sessionCount.getAndDecrement();
+        if (sharedPool != null && count > reserved) {
+            sharedPool.release();
+        }
+    }
 
-        for (int i = 0; i < targetCount; i++) {
+    /**
+     * 共享名额耗尽时，与独占模式一样最多等待 borrowTimeoutMillis：
+     * 期间反复尝试接管其他 space 的空闲 session，或等到其他 space 释放共享名额
+     *
+     * @return 接管到的 session；等到共享名额时返回 null，此时已占用名额，由调用方新建 session
+     */
+    private ExpandSessionWrapper awaitShared(int slot) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(expandConfig.getBorrowTimeoutMillis());
+        while (true) {
+            ExpandSessionWrapper adopted = adoptSession(slot);
+            if (adopted != null) {
+                return adopted;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                borrowTimeoutCount.increment();
+                throw new RuntimeException("The shared session pool does not have available sessions.");
+            }
             try {
-                Session session = pool.getSession(config.getUserName(), config.getPassword(), config.getReconnect());
-                ResultSet rs = session.execute(USE_SPACE);
-                if (rs.isSucceeded()) {
-                    ExpandSessionWrapper wrapper = new ExpandSessionWrapper(session);
-                    sessionList.add(wrapper);
-                    int index = sessionList.size() - 1;
-                    canUseBitSet.set(index, true);
-                } else {
-                    log.error("初始化 session 失败: {}", rs.getErrorMessage());
+                long wait = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(ADOPT_RETRY_MILLIS));
+                if (sharedPool.tryAcquire(wait, TimeUnit.NANOSECONDS)) {
+                    // 等待期间可能已回到预留之内，此时把共享名额还回去
+                    if (sessionCount.incrementAndGet() <= reserved) {
+                        sharedPool.release();
+                    }
+                    return null;
                 }
-            } catch (Exception e) {
-                log.error("创建初始 session 失败", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for an available session.");
+            }
+        }
+    }
+
+    /**
+     * 接管其他 space 的空闲 session，切换到当前 space 后放入指定槽位
+     *
+     * @return 没有可接管的 session 时返回 null
+     */
+    private ExpandSessionWrapper adoptSession(int slot) {
+        ExpandSessionWrapper donor = sharedPool.detachIdle(this);
+        if (donor == null) {
+            return null;
+        }
+        // 接管的 session 带着共享名额过来，落在预留之内时把名额还给共享池
+        if (sessionCount.incrementAndGet() <= reserved) {
+            sharedPool.release();
+        }
+        Session session = donor.getSession();
+        boolean success = false;
+        try {
+            ResultSet resultSet = session.execute(USE_SPACE);
+            if (!resultSet.isSucceeded()) {
+                throw new RuntimeException(
+                        "Switch space `"
+                                + config.getSpaceName()
+                                + "' failed: "
+                                + resultSet.getErrorMessage());
+            }
+            // 共享连接池下各 space 的节点列表一致，节点序号可直接沿用
+            ExpandSessionWrapper sessionWrapper = new ExpandSessionWrapper(session, slot, donor.getHostIndex());
+            slots.set(slot, sessionWrapper);
+            switchedCount.increment();
+            success = true;
+            return sessionWrapper;
+        } catch (IOErrorException e) {
+            throw new RuntimeException("Switch space failed: " + e.getMessage());
+        } finally {
+            if (!success) {
+                session.release();
+                releaseSession();
             }
         }
     }
 
-    private void checkSessions() {
+    /**
+     * 交出一个预留之外的空闲 session 给其他 space，优先交出空闲最久的；
+     * session 连同其占用的共享名额一起转移，由接管方负责释放
+     */
+    ExpandSessionWrapper detachIdle() {
+        if (!isInitialized || isClose || sessionCount.get() <= reserved) {
+            return null;
+        }
+        for (HostPool host : hosts) {
+            if (host.isEjected()) {
+                continue;
+            }
+            Iterator<ExpandSessionWrapper> it = host.getIdleQueue().descendingIterator();
+            while (it.hasNext()) {
+                ExpandSessionWrapper taken = takeIdle(host, it.next());
+                if (taken == null) {
+                    continue;
+                }
+                if (sessionCount.getAndDecrement() <= reserved) {
+                    // 并发借还后已回到预留之内，放回原处
+                    sessionCount.incrementAndGet();
+                    taken.markReturned();
+                    host.getIdleQueue().offerLast(taken);
+                    permits.release();
+                    return null;
+                }
+                taken.setNoAvailable();
+                taken.markReturned();
+                if (slots.compareAndSet(taken.getSlot(), taken, null)) {
+                    freeSlots.offer(taken.getSlot());
+                }
+                permits.release();
+                return taken;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 后台维护：从队尾（空闲最久）开始回收多余或空闲过久的 session，
+     * 检查到期的 session 每次最多检查 probesPerRun 个；
+     * 被摘除的节点清空空闲 session，到期后探测恢复；最后补足 minIdle
+     */
+    private void maintain() {
         if (!isInitialized || isClose) {
             return;
         }
+        try {
+            long now = System.nanoTime();
+            long evictNanos = TimeUnit.MILLISECONDS.toNanos(expandConfig.getIdleEvictMillis());
+            long checkNanos = TimeUnit.MILLISECONDS.toNanos(expandConfig.getHealthCheckIntervalMillis());
+            int probes = 0;
+            for (HostPool host : hosts) {
+                if (host.isEjected()) {
+                    drainIdle(host);
+                    if (host.probeDue(now)) {
+                        probeHost(host);
+                    }
+                    continue;
+                }
+                Iterator<ExpandSessionWrapper> it = host.getIdleQueue().descendingIterator();
+                while (it.hasNext() && !isClose) {
+                    ExpandSessionWrapper session = it.next();
+                    int idle = idleCount();
+                    boolean surplus = idle > maxIdle
+                            || (idle > minIdle && evictNanos > 0 && now - session.getLastReturnedNanos() > evictNanos);
+                    boolean needCheck = !surplus && probes < expandConfig.getProbesPerRun()
+                            && now - session.getLastCheckedNanos() > checkNanos;
+                    if (!surplus && !needCheck) {
+                        continue;
+                    }
+                    ExpandSessionWrapper taken = takeIdle(host, session);
+                    if (taken == null) {
+                        continue;
+                    }
+                    if (surplus) {
+                        evictedCount.increment();
+                        discard(taken);
+                        log.debug("回收空闲 session（索引：{}）", taken.getSlot());
+                        continue;
+                    }
+                    probes++;
+                    if (checkSessionValidity(taken)) {
+                        taken.markChecked();
+                        // 放回队尾，保持其空闲时长排序
+                        taken.markReturned();
+                        host.getIdleQueue().offerLast(taken);
+                        permits.release();
+                    } else {
+                        replaceSession(taken);
+                    }
+                }
+            }
+            ensureMinIdle();
+        } catch (Exception e) {
+            log.error("session 维护任务执行失败", e);
+        }
+    }
 
-        log.debug("开始心跳检测...");
-        for (int i = 0; i < sessionList.size(); i++) {
-            ExpandSessionWrapper session = sessionList.get(i);
-            if (session == null) {
-                continue;
+    /**
+     * 从空闲队列中取出指定 session，取出期间占用一个借出名额
+     */
+    private ExpandSessionWrapper takeIdle(HostPool host, ExpandSessionWrapper session) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        if (host.getIdleQueue().removeLastOccurrence(session) && session.markBorrowed()) {
+            return session;
+        }
+        permits.release();
+        return null;
+    }
+
+    /**
+     * 销毁被维护任务取出的 session 并归还借出名额
+     */
+    private void discard(ExpandSessionWrapper sessionWrapper) {
+        destroy(sessionWrapper);
+        if (sessionWrapper.markReturned()) {
+            permits.release();
+        }
+    }
+
+    private void drainIdle(HostPool host) {
+        for (ExpandSessionWrapper session : host.getIdleQueue()) {
+            ExpandSessionWrapper taken = takeIdle(host, session);
+            if (taken != null) {
+                discard(taken);
             }
+        }
+    }
 
-            boolean isValid = checkSessionValidity(session);
-            if (!isValid) {
-                replaceSession(i);
+    /**
+     * 探测被摘除的节点，能建立 session 即恢复，否则继续摘除
+     */
+    private void probeHost(HostPool host) {
+        if (host.ensurePool(config.getPoolConfig()) == null) {
+            host.eject(ejectNanos);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            ExpandSessionWrapper session = openSession(host);
+            host.recordLatency(System.nanoTime() - start, expandConfig.getLatencyDecay(), halfLifeNanos);
+            host.readmit();
+            host.getIdleQueue().offerFirst(session);
+            log.info("graphd {} 探测成功，已恢复", host.getAddress());
+        } catch (Exception e) {
+            host.eject(ejectNanos);
+            log.warn("graphd {} 探测失败: {}", host.getAddress(), e.getMessage());
+        }
+    }
+
+    private void recordFailure(HostPool host) {
+        if (host.recordFailure(expandConfig.getEjectAfterFailures(), ejectNanos)) {
+            log.warn("graphd {} 连续失败 {} 次，暂时摘除", host.getAddress(), expandConfig.getEjectAfterFailures());
+        }
+    }
+
+    private void ensureMinIdle() {
+        int missing = minIdle - idleCount();
+        for (int i = 0; i < missing && sessionCount.get() < maxConnSize && !isClose; i++) {
+            HostPool host = route();
+            try {
+                host.getIdleQueue().offerFirst(openSession(host));
+            } catch (Exception e) {
+                log.error("补充空闲 session 失败", e);
+                return;
             }
         }
-        log.debug("心跳检测完成.");
+    }
+
+    private int idleCount() {
+        return Math.max(sessionCount.get() - (maxConnSize - permits.availablePermits()), 0);
     }
 
     private boolean checkSessionValidity(ExpandSessionWrapper session) {
+        HostPool host = hosts.get(session.getHostIndex());
+        long start = System.nanoTime();
         try {
             ResultSet rs = session.getSession().execute(USE_SPACE);
-            return rs.isSucceeded();
+            host.recordLatency(System.nanoTime() - start, expandConfig.getLatencyDecay(), halfLifeNanos);
+            if (rs.isSucceeded()) {
+                host.recordSuccess();
+                return true;
+            }
         } catch (Exception e) {
             log.warn("检测 session 失败: {}", e.getMessage());
-            return false;
         }
+        recordFailure(host);
+        return false;
     }
 
-    private synchronized void replaceSession(int index) {
-        if (index < 0 || index >= sessionList.size()) {
-            log.warn("Invalid session index: {}", index);
+    private void replaceSession(ExpandSessionWrapper oldSession) {
+        int index = oldSession.getSlot();
+        HostPool host = hosts.get(oldSession.getHostIndex());
+        discard(oldSession);
+        if (host.isEjected()) {
             return;
         }
 
-        ExpandSessionWrapper oldSession = sessionList.get(index);
-        if (oldSession != null) {
-            release(oldSession);
-        }
-
         try {
-            Session newSession = pool.getSession(config.getUserName(), config.getPassword(), config.getReconnect());
-            ResultSet rs = newSession.execute(USE_SPACE);
-            if (rs.isSucceeded()) {
-                ExpandSessionWrapper newWrapper = new ExpandSessionWrapper(newSession);
-                sessionList.set(index, newWrapper); // 直接替换
-                canUseBitSet.set(index, true); // 标记为可用
-                log.info("成功替换 session（索引：{}）", index);
-            } else {
-                log.error("创建新 session 失败：{}", rs.getErrorMessage());
-            }
+            host.getIdleQueue().offerLast(openSession(host));
+            replacedCount.increment();
+            log.info("成功替换 session（索引：{}）", index);
         } catch (Exception e) {
             log.error("替换 session 失败", e);
         }
     }
 
+    /**
+     * 按路由策略选择节点，全部被摘除时仍返回得分最低的节点
+     */
+    private HostPool route() {
+        List<HostPool> hostList = hosts;
+        int size = hostList.size();
+        if (size == 1) {
+            return hostList.get(0);
+        }
+        RoutingPolicy policy = expandConfig.getRoutingPolicy();
+        // 随机起点，得分相同时分散到不同节点
+        int start = ThreadLocalRandom.current().nextInt(size);
+        HostPool best = null, fallback = null;
+        double bestScore = Double.MAX_VALUE, fallbackScore = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            HostPool host = hostList.get((start + i) % size);
+            double score = host.score(policy, halfLifeNanos);
+            if (host.isEjected()) {
+                if (fallback == null || score < fallbackScore) {
+                    fallback = host;
+                    fallbackScore = score;
+                }
+            } else if (best == null || score < bestScore) {
+                best = host;
+                bestScore = score;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
     /**
      * getSessionWrapper: return a SessionWrapper from sessionManager,
      * the SessionWrapper couldn't use by multi-thread
@@ -168,93 +652,257 @@ public class ExpandSessionManager {
      * @return SessionWrapper
      * @throws RuntimeException the exception when get SessionWrapper
      */
-    public synchronized ExpandSessionWrapper getSessionWrapper() throws RuntimeException,
+    public ExpandSessionWrapper getSessionWrapper() throws RuntimeException,
             ClientServerIncompatibleException {
         checkClose();
-        if (pool == null) {
-            init();
+        initialize();
+        acquirePermit();
+        try {
+            ExpandSessionWrapper sessionWrapper = borrow();
+            hosts.get(sessionWrapper.getHostIndex()).getOutstanding().incrementAndGet();
+            borrowCount.increment();
+            return sessionWrapper;
+        } catch (RuntimeException | ClientServerIncompatibleException e) {
+            permits.release();
+            throw e;
         }
-        if (canUseBitSet.isEmpty()
-                && sessionList.size() >= config.getPoolConfig().getMaxConnSize()) {
-            throw new RuntimeException("The SessionsManager does not have available sessions.");
+    }
+
+    /**
+     * 优先使用路由选中节点的空闲 session，其次在该节点新建，
+     * 最后退而使用其他可用节点
+     */
+    private ExpandSessionWrapper borrow() throws ClientServerIncompatibleException {
+        HostPool best = route();
+        ExpandSessionWrapper sessionWrapper = pollValidIdle(best);
+        if (sessionWrapper != null) {
+            return sessionWrapper;
+        }
+        RuntimeException lastError;
+        try {
+            return openBorrowed(best);
+        } catch (RuntimeException e) {
+            lastError = e;
         }
-        if (!canUseBitSet.isEmpty()) {
-            int index = canUseBitSet.nextSetBit(0);
-            if (index >= 0) {
-                if (canUseBitSet.get(index)) {
-                    canUseBitSet.set(index, false);
-                    return sessionList.get(index);
+        for (HostPool host : hosts) {
+            if (host != best && !host.isEjected()) {
+                sessionWrapper = pollValidIdle(host);
+                if (sessionWrapper != null) {
+                    return sessionWrapper;
                 }
             }
         }
+        for (HostPool host : hosts) {
+            if (host != best && !host.isEjected()) {
+                try {
+                    return openBorrowed(host);
+                } catch (RuntimeException e) {
+                    lastError = e;
+                }
+            }
+        }
+        throw lastError;
+    }
+
+    private ExpandSessionWrapper openBorrowed(HostPool host) throws ClientServerIncompatibleException {
+        ExpandSessionWrapper sessionWrapper = openSession(host, sharedPool != null);
+        sessionWrapper.markBorrowed();
+        return sessionWrapper;
+    }
+
+    private void acquirePermit() {
+        long timeout = expandConfig.getBorrowTimeoutMillis();
+        boolean acquired;
         try {
-            Session session = pool.getSession(
-                    config.getUserName(), config.getPassword(), config.getReconnect());
-            ResultSet resultSet = session.execute(USE_SPACE);
-            if (!resultSet.isSucceeded()) {
-                throw new RuntimeException(
-                        "Switch space `"
-                                + config.getSpaceName()
-                                + "' failed: "
-                                + resultSet.getErrorMessage());
+            acquired = timeout == 0
+                    ? permits.tryAcquire()
+                    : permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an available session.");
+        }
+        if (!acquired) {
+            borrowTimeoutCount.increment();
+            throw new RuntimeException("The SessionsManager does not have available sessions.");
+        }
+    }
+
+    /**
+     * 取出最近归还的空闲 session，已被 release 的 session 直接丢弃
+     */
+    private ExpandSessionWrapper pollIdle(HostPool host) {
+        ExpandSessionWrapper sessionWrapper;
+        while ((sessionWrapper = host.getIdleQueue().pollFirst()) != null) {
+            if (sessionWrapper.markBorrowed()) {
+                return sessionWrapper;
             }
-            ExpandSessionWrapper sessionWrapper = new ExpandSessionWrapper(session);
-            sessionList.add(sessionWrapper);
-            return sessionWrapper;
-        } catch (AuthFailedException | NotValidConnectionException | IOErrorException e) {
-            throw new RuntimeException("Get session failed: " + e.getMessage());
         }
+        return null;
+    }
+
+    /**
+     * 取出空闲 session，空闲超过 validateAfterIdleMillis 的先校验，失效的直接销毁
+     */
+    private ExpandSessionWrapper pollValidIdle(HostPool host) {
+        long validateNanos = TimeUnit.MILLISECONDS.toNanos(expandConfig.getValidateAfterIdleMillis());
+        ExpandSessionWrapper sessionWrapper;
+        while ((sessionWrapper = pollIdle(host)) != null) {
+            long lastSeen = Math.max(sessionWrapper.getLastReturnedNanos(), sessionWrapper.getLastCheckedNanos());
+            if (validateNanos <= 0 || System.nanoTime() - lastSeen <= validateNanos) {
+                return sessionWrapper;
+            }
+            if (checkSessionValidity(sessionWrapper)) {
+                sessionWrapper.markChecked();
+                return sessionWrapper;
+            }
+            log.warn("借出前校验 session 失败（索引：{}），已销毁", sessionWrapper.getSlot());
+            destroy(sessionWrapper);
+        }
+        return null;
     }
 
     /**
      * returnSessionWrapper: return the SessionWrapper to the sessionManger,
-     * the old SessionWrapper couldn't use again.
+     * the returned SessionWrapper couldn't use again until it is borrowed.
      *
      * @param session The SessionWrapper
      */
-    public synchronized void returnSessionWrapper(ExpandSessionWrapper session) {
-        checkClose();
-        if (session == null) {
+    public void returnSessionWrapper(ExpandSessionWrapper session) {
+        if (isClose) {
+            // 关闭后归还的 session 直接销毁，释放其占用的共享名额
+            if (session != null && session.markReturned()) {
+                destroy(session);
+            }
+            checkClose();
+        }
+        if (session == null || !session.markReturned()) {
             return;
         }
-        int index = sessionList.indexOf(session);
-        if (index >= 0) {
-            Session ses = session.getSession();
-            sessionList.set(index, new ExpandSessionWrapper(ses));
-            session.setNoAvailable();
-            canUseBitSet.set(index, true);
+        HostPool host = hosts.get(session.getHostIndex());
+        host.getOutstanding().decrementAndGet();
+        // 以语句往返耗时为样本，借出后未执行语句的不计
+        long roundTrip = session.getRoundTripNanos();
+        if (roundTrip >= 0) {
+            host.recordLatency(roundTrip, expandConfig.getLatencyDecay(), halfLifeNanos);
+        }
+        if (session.available() && !host.isEjected()) {
+            host.getIdleQueue().offerFirst(session);
+        } else {
+            destroy(session);
+        }
+        permits.release();
+    }
+
+    /**
+     * session 上限
+     */
+    public int getMaxSessions() {
+        return maxConnSize;
+    }
+
+    /**
+     * 当前连接池计数
+     */
+    public PoolStats getPoolStats() {
+        int total = sessionCount.get();
+        int inUse = permits == null ? 0 : maxConnSize - permits.availablePermits();
+        return new PoolStats(inUse, Math.max(total - inUse, 0), total,
+                createdCount.sum(), replacedCount.sum(), evictedCount.sum(),
+                borrowCount.sum(), borrowTimeoutCount.sum(), switchedCount.sum());
+    }
+
+    /**
+     * 各 graphd 节点的路由状态
+     */
+    public List<HostStats> getHostStats() {
+        if (!isInitialized) {
+            return Collections.emptyList();
+        }
+        List<HostStats> stats = new ArrayList<>(hosts.size());
+        for (HostPool host : hosts) {
+            stats.add(host.stats(halfLifeNanos));
         }
+        return stats;
     }
 
     /**
      * close: release all sessions and close the connection pool
      */
     public synchronized void close(String userName) {
+        if (isClose) {
+            return;
+        }
         // 释放当前角色的所有session
+        heartbeatExecutor.shutdownNow();
+        if (sharedPool != null) {
+            sharedPool.unregister(this);
+        }
+        if (!isInitialized) {
+            isClose = true;
+            unreserve();
+            return;
+        }
+        ExpandSessionWrapper sessionWrapper = null;
         try {
-            heartbeatExecutor.shutdownNow();
-            ExpandSessionWrapper sessionWrapper = getSessionWrapper();
+            sessionWrapper = getSessionWrapper();
             Session session = sessionWrapper.getSession();
             session.execute("SHOW SESSIONS | YIELD $-.SessionId as sid WHERE $-.UserName == \"" + userName + "\" | KILL SESSIONS $-.sid");
         } catch (Exception e) {
             log.error("nebula 释放session失败，请手动释放！");
+        } finally {
+            if (sessionWrapper != null) {
+                returnSessionWrapper(sessionWrapper);
+            }
         }
-        if (pool != null) {
-            pool.close();
-        }
-        sessionList.clear();
         isClose = true;
+        if (hosts != null) {
+            for (HostPool host : hosts) {
+                // 逐个销毁空闲 session，接管来的或预留之外的 session 借此归还共享名额
+                ExpandSessionWrapper idle;
+                while ((idle = host.getIdleQueue().pollFirst()) != null) {
+                    destroy(idle);
+                }
+                host.close();
+            }
+        }
+        unreserve();
+    }
+
+    /**
+     * 归还为该 space 预留的共享名额，已借出的 session 在关闭后归还时各自释放
+     */
+    private void unreserve() {
+        if (sharedPool != null) {
+            sharedPool.unreserve(reserved);
+        }
     }
 
     /**
      * release: release the session
      *
-     * @apiNote 扩充方法，手动释放session
+     * @apiNote 扩充方法，手动释放session，同时计入所属节点的失败次数
+     */
+    public void release(ExpandSessionWrapper sessionWrapper) {
+        destroy(sessionWrapper);
+        if (sessionWrapper.markReturned()) {
+            HostPool host = hosts.get(sessionWrapper.getHostIndex());
+            host.getOutstanding().decrementAndGet();
+            recordFailure(host);
+            permits.release();
+        }
+    }
+
+    /**
+     * 销毁 session 并腾出槽位，不归还借出名额
      */
-    public synchronized void release(ExpandSessionWrapper sessionWrapper) {
+    private void destroy(ExpandSessionWrapper sessionWrapper) {
         sessionWrapper.setNoAvailable();
         sessionWrapper.release();
-        this.sessionList.remove(sessionWrapper);
+        int slot = sessionWrapper.getSlot();
+        if (slot >= 0 && slots.compareAndSet(slot, sessionWrapper, null)) {
+            releaseSession();
+            freeSlots.offer(slot);
+        }
     }
 
     private void checkClose() {
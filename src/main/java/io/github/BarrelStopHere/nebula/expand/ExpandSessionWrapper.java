@@ -6,6 +6,7 @@ import com.vesoft.nebula.client.graph.exception.InvalidSessionException;
 import com.vesoft.nebula.client.graph.net.Session;
 import lombok.Getter;
 
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -17,10 +18,39 @@ public class ExpandSessionWrapper {
 
     @Getter
     private final Session session;
+    /**
+     * 在 ExpandSessionManager 中的槽位，归还时直接按槽位定位
+     */
+    @Getter
+    private final int slot;
+    /**
+     * 所属 graphd 节点在 ExpandSessionManager 中的序号
+     */
+    @Getter
+    private final int hostIndex;
     private final AtomicBoolean available = new AtomicBoolean(true);
+    private final AtomicBoolean borrowed = new AtomicBoolean(false);
+    /**
+     * 最近一次归还时间，用于空闲校验与回收
+     */
+    private volatile long lastReturnedNanos = System.nanoTime();
+    /**
+     * 最近一次确认可用的时间
+     */
+    private volatile long lastCheckedNanos = System.nanoTime();
+    /**
+     * 本次借出期间最近一条语句的往返耗时，未执行语句时为 -1
+     */
+    private volatile long roundTripNanos = -1;
 
     public ExpandSessionWrapper(Session session) {
+        this(session, -1, 0);
+    }
+
+    public ExpandSessionWrapper(Session session, int slot, int hostIndex) {
         this.session = session;
+        this.slot = slot;
+        this.hostIndex = hostIndex;
     }
 
     /**
@@ -34,7 +64,32 @@ public class ExpandSessionWrapper {
         if (!available()) {
             throw new InvalidSessionException();
         }
-        return session.execute(stmt);
+        long start = System.nanoTime();
+        try {
+            return session.execute(stmt);
+        } finally {
+            roundTripNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Execute the query sentence with parameters.
+     *
+     * @param stmt         The query sentence.
+     * @param parameterMap The parameters referenced as $name in the sentence.
+     * @return The ResultSet.
+     */
+    public ResultSet executeWithParameter(String stmt, Map<String, Object> parameterMap)
+            throws IOErrorException {
+        if (!available()) {
+            throw new InvalidSessionException();
+        }
+        long start = System.nanoTime();
+        try {
+            return session.executeWithParameter(stmt, parameterMap);
+        } finally {
+            roundTripNanos = System.nanoTime() - start;
+        }
     }
 
     /**
@@ -51,6 +106,48 @@ public class ExpandSessionWrapper {
         return available.get();
     }
 
+    /**
+     * 标记为已借出，已借出或已失效时返回false
+     */
+    boolean markBorrowed() {
+        if (available() && borrowed.compareAndSet(false, true)) {
+            roundTripNanos = -1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 标记为已归还，重复归还时返回false
+     */
+    boolean markReturned() {
+        if (borrowed.compareAndSet(true, false)) {
+            lastReturnedNanos = System.nanoTime();
+            return true;
+        }
+        return false;
+    }
+
+    long getLastReturnedNanos() {
+        return lastReturnedNanos;
+    }
+
+    long getRoundTripNanos() {
+        return roundTripNanos;
+    }
+
+    long getLastCheckedNanos() {
+        return lastCheckedNanos;
+    }
+
+    void markChecked() {
+        lastCheckedNanos = System.nanoTime();
+    }
+
+    public boolean isBorrowed() {
+        return borrowed.get();
+    }
+
     /**
      * @apiNote default -> public
      */
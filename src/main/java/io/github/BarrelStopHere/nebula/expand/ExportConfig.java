@@ -0,0 +1,59 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PartitionExporter 配置
+ */
+@Data
+public class ExportConfig {
+
+    /**
+     * 同时扫描的分区数
+     */
+    private int partitionParallelism = 4;
+
+    /**
+     * 每次扫描请求返回的最大行数
+     */
+    private int scanBatchSize = 1000;
+
+    /**
+     * 扫描线程与写文件线程之间队列的容量（块），每块约 64K 字符，队列满时扫描阻塞
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 是否以 gzip 压缩输出
+     */
+    private boolean gzip = false;
+
+    /**
+     * 扫描的属性，为空时扫描全部属性
+     */
+    private List<String> returnCols = new ArrayList<>();
+
+    /**
+     * 是否允许从 follower 副本读取
+     */
+    private boolean allowReadFromFollower = true;
+
+    /**
+     * 进度日志间隔（毫秒），小于等于0时不输出
+     */
+    private long reportIntervalMillis = 10000;
+
+    /**
+     * 分区扫描失败时是否立即停止整个导出，run() 抛出 NebulaException；
+     * 为 false 时继续导出其他分区，失败分区记录在结果中
+     */
+    private boolean failOnPartitionError = false;
+
+    /**
+     * 最多打印多少条映射失败的行，超出后只计数
+     */
+    private int maxLoggedErrors = 20;
+}
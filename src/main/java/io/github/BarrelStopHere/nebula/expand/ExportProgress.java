@@ -0,0 +1,46 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 导出进度快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ExportProgress {
+
+    private final int partitions;
+    private final int partitionsDone;
+    /**
+     * 扫描失败的分区，这些分区的数据不完整：失败前已写出的行保留在文件中（见 partialRows），之后的行缺失；
+     * 导出结束后必须检查，不为空时应删除文件或单独补导这些分区
+     */
+    private final List<Integer> failedPartitions;
+    /**
+     * 已写出的行数，含 partialRows
+     */
+    private final long rowsExported;
+    /**
+     * 失败分区在失败前已写入文件的行数
+     */
+    private final long partialRows;
+    private final long rowErrors;
+    private final long charsWritten;
+    private final long elapsedMillis;
+
+    /**
+     * 平均导出速度（行/秒）
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis <= 0 ? 0 : rowsExported * 1000.0 / elapsedMillis;
+    }
+
+    public boolean isSucceeded() {
+        return failedPartitions.isEmpty() && rowErrors == 0 && partitionsDone == partitions;
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import io.github.BarrelStopHere.nebula.annotation.Vid;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 按 VID 批量 FETCH 语句构建
+ * 多个 VID 合并到一条 FETCH PROP 中，按行数和字节数切分；VID 按原样拼接，与插入时一致。
+ * YIELD 以字段名为别名返回 VID 和实体的全部属性，由 {@link RowMappingPlan} 按名称映射回字段
+ */
+public final class FetchConvert {
+
+    private FetchConvert() {
+    }
+
+    public static List<BatchStatement> vertices(Collection<?> ids, String tagName, Class<?> clazz,
+                                                int maxRows, int maxBytes) {
+        List<?> list = ids instanceof List ? (List<?>) ids : new ArrayList<>(ids);
+        String yield = yieldClause(tagName, clazz);
+        return NGqlEncoder.encode("FETCH PROP ON " + tagName + " ", ',', yield, list, (id, sb) -> {
+            if (id == null) {
+                throw new IllegalArgumentException("顶点ID不能为空");
+            }
+            sb.append(id);
+            return true;
+        }, maxRows, maxBytes);
+    }
+
+    private static String yieldClause(String tagName, Class<?> clazz) {
+        Field vidField = AbstractConvert.annotatedField(clazz, Vid.class);
+        if (vidField == null) {
+            throw new IllegalArgumentException("顶点必须包含@Id注解的ID字段");
+        }
+        StringBuilder sb = new StringBuilder(" YIELD id(vertex) AS ").append(vidField.getName());
+        for (String prop : new UpdateConvert<>(clazz).getPropNames()) {
+            sb.append(", ").append(tagName).append('.').append(prop)
+                    .append(" AS ").append(prop);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.client.graph.NebulaPoolConfig;
+import com.vesoft.nebula.client.graph.data.HostAddress;
+import com.vesoft.nebula.client.graph.net.NebulaPool;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ExpandSessionManager 中单个 graphd 节点的子池
+ * 记录该节点的空闲 session、借出数、耗时估计与摘除状态
+ */
+@Slf4j
+class HostPool {
+
+    private final int index;
+    private final HostAddress address;
+    /**
+     * 共享连接池，为 null 时本节点独占一个 NebulaPool
+     */
+    private final SharedSessionPool sharedPool;
+    private volatile NebulaPool pool;
+    private final ConcurrentLinkedDeque<ExpandSessionWrapper> idleQueue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile double ewmaMillis = 0;
+    private volatile long lastSampleNanos = System.nanoTime();
+    private volatile boolean ejected = false;
+    private volatile long ejectedUntilNanos = 0;
+
+    HostPool(int index, HostAddress address, SharedSessionPool sharedPool) {
+        this.index = index;
+        this.address = address;
+        this.sharedPool = sharedPool;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    HostAddress getAddress() {
+        return address;
+    }
+
+    NebulaPool getPool() {
+        return pool;
+    }
+
+    ConcurrentLinkedDeque<ExpandSessionWrapper> getIdleQueue() {
+        return idleQueue;
+    }
+
+    AtomicInteger getOutstanding() {
+        return outstanding;
+    }
+
+    /**
+     * 连接池未建立时尝试建立，失败返回 null
+     */
+    synchronized NebulaPool ensurePool(NebulaPoolConfig poolConfig) {
+        if (pool == null) {
+            pool = sharedPool != null ? sharedPool.ensurePool(address) : createPool(address, poolConfig);
+        }
+        return pool;
+    }
+
+    /**
+     * 建立单个 graphd 的连接池，失败返回 null
+     */
+    static NebulaPool createPool(HostAddress address, NebulaPoolConfig poolConfig) {
+        NebulaPool newPool = new NebulaPool();
+        try {
+            if (newPool.init(Collections.singletonList(address), poolConfig)) {
+                return newPool;
+            }
+            newPool.close();
+            log.warn("graphd {} 连接池初始化失败", address);
+        } catch (UnknownHostException e) {
+            log.warn("graphd {} 地址无法解析: {}", address, e.getMessage());
+        }
+        return null;
+    }
+
+    double score(RoutingPolicy policy, long halfLifeNanos) {
+        int load = outstanding.get();
+        if (policy == RoutingPolicy.LEAST_OUTSTANDING) {
+            return load;
+        }
+        return (load + 1) * currentEwma(System.nanoTime(), halfLifeNanos);
+    }
+
+    /**
+     * 距上次采样越久，耗时估计越向0衰减（按半衰期）：
+     * 慢节点因得分高而很少被选中、也就很少产生新样本，衰减保证它最终会再被选中并重新采样，
+     * 避免一次偶发的慢请求使节点长期得不到流量
+     */
+    private double currentEwma(long now, long halfLifeNanos) {
+        double current = ewmaMillis;
+        long elapsed = now - lastSampleNanos;
+        if (current == 0 || halfLifeNanos <= 0 || elapsed <= 0) {
+            return current;
+        }
+        return current * Math.pow(0.5, (double) elapsed / halfLifeNanos);
+    }
+
+    /**
+     * @param nanos 语句往返耗时，不含调用方持有 session 期间的其他工作
+     */
+    void recordLatency(long nanos, double decay, long halfLifeNanos) {
+        long now = System.nanoTime();
+        double sample = nanos / 1_000_000.0;
+        double current = currentEwma(now, halfLifeNanos);
+        // 并发更新时允许丢失个别样本，只是估计值
+        ewmaMillis = current == 0 ? sample : current + decay * (sample - current);
+        lastSampleNanos = now;
+    }
+
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * 记录一次失败，连续失败达到阈值时摘除
+     *
+     * @return 本次是否触发摘除
+     */
+    boolean recordFailure(int threshold, long ejectNanos) {
+        if (consecutiveFailures.incrementAndGet() >= threshold && !ejected) {
+            eject(ejectNanos);
+            return true;
+        }
+        return false;
+    }
+
+    void eject(long ejectNanos) {
+        ejectedUntilNanos = System.nanoTime() + ejectNanos;
+        ejected = true;
+    }
+
+    void readmit() {
+        consecutiveFailures.set(0);
+        ejected = false;
+    }
+
+    boolean isEjected() {
+        return ejected;
+    }
+
+    boolean probeDue(long now) {
+        return ejected && now - ejectedUntilNanos >= 0;
+    }
+
+    HostStats stats(long halfLifeNanos) {
+        return new HostStats(address.toString(), outstanding.get(), idleQueue.size(),
+                currentEwma(System.nanoTime(), halfLifeNanos), ejected);
+    }
+
+    /**
+     * 关闭独占的连接池，共享连接池由 {@link SharedSessionPool#close()} 关闭
+     */
+    void close() {
+        NebulaPool current = pool;
+        if (current != null && sharedPool == null) {
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 单个 graphd 节点的路由状态快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class HostStats {
+
+    private final String address;
+
+    /**
+     * 当前借出的 session 数
+     */
+    private final int outstanding;
+
+    private final int idle;
+
+    /**
+     * 指数加权平均耗时（毫秒）
+     */
+    private final double ewmaMillis;
+
+    /**
+     * 是否已被摘除
+     */
+    private final boolean ejected;
+}
@@ -0,0 +1,48 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 导入进度快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ImportProgress {
+
+    private final long fileBytes;
+    /**
+     * 已读取的字节数，包括本次从断点开始前跳过的部分
+     */
+    private final long bytesRead;
+    /**
+     * 断点位置，该位置之前的行均已写入成功
+     */
+    private final long committedBytes;
+    private final long linesRead;
+    private final long parseErrors;
+    private final long rowsWritten;
+    private final long rowsFailed;
+    /**
+     * 重试后仍写入失败的批次数
+     */
+    private final long failedBatches;
+    /**
+     * 是否因批次写入失败而中止，中止后断点停在第一个失败批次之前
+     */
+    private final boolean aborted;
+    private final long elapsedMillis;
+
+    /**
+     * 本次导入的平均写入速度（行/秒）
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis <= 0 ? 0 : rowsWritten * 1000.0 / elapsedMillis;
+    }
+
+    public boolean isSucceeded() {
+        return !aborted && failedBatches == 0 && parseErrors == 0 && rowsFailed == 0;
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 参数化批量插入语句模板
+ * 按 (语句头, 行数, 列数, 行键类型) 缓存，模板和参数名只生成一次，
+ * 同样大小的批次复用同一条语句文本
+ */
+@Getter
+public final class InsertTemplate {
+
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+    private static final Map<Key, InsertTemplate> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 行键类型
+     */
+    public enum RowKey {
+        /** 顶点：$v0 */
+        VERTEX,
+        /** 边：$s0->$d0 */
+        EDGE,
+        /** 带 rank 的边：$s0->$d0@$k0 */
+        RANKED_EDGE
+    }
+
+    private final String nGql;
+
+    /**
+     * keyParams[行] 为该行的 VID 或起点、终点、rank 参数名
+     */
+    private final String[][] keyParams;
+
+    /**
+     * propParams[行][列] 为该行各属性的参数名
+     */
+    private final String[][] propParams;
+
+    private InsertTemplate(String header, int rows, int cols, RowKey rowKey) {
+        this.keyParams = new String[rows][];
+        this.propParams = new String[rows][cols];
+        StringBuilder sb = new StringBuilder(header.length() + rows * (cols + 3) * 8);
+        sb.append(header);
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) sb.append(",");
+            switch (rowKey) {
+                case VERTEX:
+                    keyParams[r] = new String[]{"v" + r};
+                    sb.append("$").append(keyParams[r][0]);
+                    break;
+                case EDGE:
+                    keyParams[r] = new String[]{"s" + r, "d" + r};
+                    sb.append("$").append(keyParams[r][0]).append("->$").append(keyParams[r][1]);
+                    break;
+                default:
+                    keyParams[r] = new String[]{"s" + r, "d" + r, "k" + r};
+                    sb.append("$").append(keyParams[r][0]).append("->$").append(keyParams[r][1])
+                            .append("@$").append(keyParams[r][2]);
+                    break;
+            }
+            sb.append(":(");
+            for (int c = 0; c < cols; c++) {
+                if (c > 0) sb.append(",");
+                propParams[r][c] = "p" + r + "_" + c;
+                sb.append("$").append(propParams[r][c]);
+            }
+            sb.append(")");
+        }
+        this.nGql = sb.toString();
+    }
+
+    public static InsertTemplate of(String header, int rows, int cols, RowKey rowKey) {
+        Key key = new Key(header, rows, cols, rowKey);
+        InsertTemplate template = TEMPLATE_CACHE.get(key);
+        if (template == null) {
+            if (TEMPLATE_CACHE.size() >= MAX_CACHED_TEMPLATES) {
+                TEMPLATE_CACHE.clear();
+            }
+            template = TEMPLATE_CACHE.computeIfAbsent(key, k -> new InsertTemplate(header, rows, cols, rowKey));
+        }
+        return template;
+    }
+
+    private static final class Key {
+        private final String header;
+        private final int rows;
+        private final int cols;
+        private final RowKey rowKey;
+
+        Key(String header, int rows, int cols, RowKey rowKey) {
+            this.header = header;
+            this.rows = rows;
+            this.cols = cols;
+            this.rowKey = rowKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return rows == other.rows && cols == other.cols
+                    && rowKey == other.rowKey && header.equals(other.header);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(header, rows, cols, rowKey);
+        }
+    }
+}
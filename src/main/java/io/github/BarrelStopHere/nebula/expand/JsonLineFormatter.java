@@ -0,0 +1,54 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * JSONL 行格式化
+ * 每行一个扁平的 JSON 对象，键为实体的全部字段名（含 VID、起点、终点和 rank），
+ * 数字和布尔输出为原值，其余类型输出为字符串，可由 {@link JsonLineMapper} 读回
+ */
+public class JsonLineFormatter<T> implements LineFormatter<T> {
+
+    private final List<Field> fields;
+    private final String[] keys;
+
+    public JsonLineFormatter(Class<T> clazz) {
+        this.fields = new TextFields<>(clazz).fields();
+        this.keys = new String[fields.size()];
+        for (int i = 0; i < keys.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            NGqlEncoder.appendString(sb, fields.get(i).getName());
+            keys[i] = sb.append(':').toString();
+        }
+    }
+
+    @Override
+    public void format(T entity, StringBuilder sb) {
+        sb.append('{');
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(keys[i]);
+            Object value = AbstractConvert.readField(fields.get(i), entity);
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof Boolean || value instanceof Number && isFinite((Number) value)) {
+                sb.append(value);
+            } else {
+                // 字符串的转义规则与 JSON 相同
+                NGqlEncoder.appendString(sb, value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            }
+        }
+        sb.append('}');
+    }
+
+    private static boolean isFinite(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            double d = value.doubleValue();
+            return !Double.isNaN(d) && !Double.isInfinite(d);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.lang.reflect.Field;
+
+/**
+ * JSONL 行映射
+ * 每行一个扁平的 JSON 对象，键按名称对应实体字段，实体中不存在的键忽略；
+ * 值支持字符串、数字、布尔和 null，嵌套的对象和数组不支持
+ */
+public class JsonLineMapper<T> implements LineMapper<T> {
+
+    private final TextFields<T> fields;
+
+    public JsonLineMapper(Class<T> clazz) {
+        this.fields = new TextFields<>(clazz);
+    }
+
+    @Override
+    public T map(String line) {
+        Parser parser = new Parser(line);
+        parser.skipSpace();
+        if (parser.atEnd()) {
+            return null;
+        }
+        T entity = fields.newInstance();
+        parser.expect('{');
+        parser.skipSpace();
+        if (parser.peek() == '}') {
+            parser.pos++;
+        } else {
+            while (true) {
+                parser.skipSpace();
+                String key = parser.string();
+                parser.skipSpace();
+                parser.expect(':');
+                parser.skipSpace();
+                Object value = parser.value();
+                Field field = fields.field(key);
+                if (field != null) {
+                    TextFields.set(entity, field, value);
+                }
+                parser.skipSpace();
+                char c = parser.next();
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw parser.error("应为 ',' 或 '}'");
+                }
+            }
+        }
+        parser.skipSpace();
+        if (!parser.atEnd()) {
+            throw parser.error("对象后存在多余内容");
+        }
+        return entity;
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        boolean atEnd() {
+            return pos >= s.length();
+        }
+
+        char peek() {
+            if (atEnd()) {
+                throw error("意外的行尾");
+            }
+            return s.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char c) {
+            if (next() != c) {
+                throw error("应为 '" + c + "'");
+            }
+        }
+
+        void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        Object value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (s.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (s.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (s.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (c == '{' || c == '[') {
+                throw error("不支持嵌套的对象或数组");
+            }
+            return number();
+        }
+
+        Number number() {
+            int start = pos;
+            boolean decimal = false;
+            while (pos < s.length()) {
+                char c = s.charAt(pos);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    decimal = true;
+                } else if (!(c >= '0' && c <= '9' || c == '-' || c == '+')) {
+                    break;
+                }
+                pos++;
+            }
+            if (start == pos) {
+                throw error("无法识别的值");
+            }
+            String text = s.substring(start, pos);
+            return decimal ? (Number) Double.parseDouble(text) : (Number) Long.parseLong(text);
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = null;
+            int start = pos;
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb == null ? s.substring(start, pos - 1) : sb.append(s, start, pos - 1).toString();
+                }
+                if (c != '\\') {
+                    continue;
+                }
+                if (sb == null) {
+                    sb = new StringBuilder();
+                }
+                sb.append(s, start, pos - 1);
+                char e = next();
+                switch (e) {
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 'u':
+                        if (pos + 4 > s.length()) {
+                            throw error("转义字符不完整");
+                        }
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        // \" \\ \/
+                        sb.append(e);
+                }
+                start = pos;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + "，位置 " + pos);
+        }
+    }
+}
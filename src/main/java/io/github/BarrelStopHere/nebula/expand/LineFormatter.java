@@ -0,0 +1,22 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+/**
+ * 把实体格式化为一行文本，与 {@link LineMapper} 相对，在多个扫描线程中并发调用，实现需线程安全
+ *
+ * @see CsvLineFormatter
+ * @see JsonLineFormatter
+ */
+public interface LineFormatter<T> {
+
+    /**
+     * 文件第一行，没有时返回 null
+     */
+    default String header() {
+        return null;
+    }
+
+    /**
+     * 追加一行，不含换行符
+     */
+    void format(T entity, StringBuilder sb);
+}
@@ -0,0 +1,16 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+/**
+ * 把一行文本映射为实体，在多个解析线程中并发调用，实现需线程安全
+ *
+ * @see CsvLineMapper
+ * @see JsonLineMapper
+ */
+@FunctionalInterface
+public interface LineMapper<T> {
+
+    /**
+     * @return 返回 null 时跳过该行；抛出异常时该行计为解析失败
+     */
+    T map(String line);
+}
@@ -0,0 +1,214 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * nGql 语句编码
+ * 每个线程复用一个缓冲区，所有行直接追加到当前语句中，不为每行生成中间字符串；
+ * 每行追加后只扫描该行统计 UTF-8 字节数，超出上限时把该行移到下一条语句
+ */
+public final class NGqlEncoder {
+
+    /**
+     * 超过该容量（字符）的缓冲区用完即丢弃，避免线程长期持有大块内存
+     */
+    private static final int MAX_RETAINED_CAPACITY = 4 * 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    /**
+     * 字符串中需要转义的字符，下标为字符值
+     * nGql 字符串只识别 \b \t \n \f \r \" \' \\ 和八进制转义，其他控制字符按三位八进制输出
+     */
+    private static final String[] ESCAPES = new String['\\' + 1];
+
+    static {
+        for (char c = 0; c < 0x20; c++) {
+            ESCAPES[c] = String.format("\\%03o", (int) c);
+        }
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+    }
+
+    private NGqlEncoder() {
+    }
+
+    /**
+     * 行编码：把实体追加到缓冲区，无法编码时返回 false，该行被跳过
+     */
+    public interface RowWriter<T> {
+        boolean write(T entity, StringBuilder sb);
+    }
+
+    /**
+     * 按行数和字节数把实体编码为多条语句，单行超出字节上限时独占一条语句
+     */
+    public static <T> List<BatchStatement> encode(String header, List<T> entities, RowWriter<T> writer,
+                                                  int maxRows, int maxBytes) {
+        return encode(header, ',', entities, writer, maxRows, maxBytes);
+    }
+
+    /**
+     * 同上，行之间以 separator 分隔，例如以 ';' 把多条语句合并为一次请求
+     */
+    public static <T> List<BatchStatement> encode(String header, char separator, List<T> entities,
+                                                  RowWriter<T> writer, int maxRows, int maxBytes) {
+        return encode(header, separator, "", entities, writer, maxRows, maxBytes);
+    }
+
+    /**
+     * 同上，每条语句末尾追加 trailer，例如 DELETE VERTEX 的 WITH EDGE
+     */
+    public static <T> List<BatchStatement> encode(String header, char separator, String trailer, List<T> entities,
+                                                  RowWriter<T> writer, int maxRows, int maxBytes) {
+        checkLimits(maxRows, maxBytes);
+        List<BatchStatement> statements = new ArrayList<>();
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        // 不按 maxBytes 预分配：少量实体配合较大的上限时会白白占用上限大小的内存，缓冲区按需增长并跨调用复用
+        try {
+            int headerLength = header.length();
+            int baseBytes = utf8Length(header, 0, headerLength) + utf8Length(trailer, 0, trailer.length());
+            sb.append(header);
+            int rows = 0, bytes = baseBytes;
+            for (T entity : entities) {
+                if (rows >= maxRows) {
+                    statements.add(new BatchStatement(sb.append(trailer).toString(), rows));
+                    sb.setLength(headerLength);
+                    rows = 0;
+                    bytes = baseBytes;
+                }
+                int mark = sb.length();
+                if (rows > 0) {
+                    sb.append(separator);
+                }
+                int rowStart = sb.length();
+                if (!writer.write(entity, sb)) {
+                    sb.setLength(mark);
+                    continue;
+                }
+                int rowBytes = utf8Length(sb, rowStart, sb.length()) + 1;
+                if (rows > 0 && bytes + rowBytes > maxBytes) {
+                    // 当前行放不下：之前的行组成一条语句，当前行前移到新语句开头
+                    statements.add(new BatchStatement(sb.substring(0, mark) + trailer, rows));
+                    sb.delete(headerLength, rowStart);
+                    rows = 0;
+                    bytes = baseBytes;
+                }
+                rows++;
+                bytes += rowBytes;
+            }
+            if (rows > 0) {
+                statements.add(new BatchStatement(sb.append(trailer).toString(), rows));
+            }
+            return statements;
+        } finally {
+            release(sb);
+        }
+    }
+
+    /**
+     * 编码为一条语句
+     */
+    public static <T> String encodeAll(String header, List<T> entities, RowWriter<T> writer) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        try {
+            sb.append(header);
+            boolean first = true;
+            for (T entity : entities) {
+                int mark = sb.length();
+                if (!first) {
+                    sb.append(',');
+                }
+                if (writer.write(entity, sb)) {
+                    first = false;
+                } else {
+                    sb.setLength(mark);
+                }
+            }
+            return sb.toString();
+        } finally {
+            release(sb);
+        }
+    }
+
+    /**
+     * 行数、字节数上限须大于0，否则会生成只有语句头的语句
+     */
+    static void checkLimits(int maxRows, int maxBytes) {
+        if (maxRows <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("maxRowsPerStatement、maxBytesPerStatement 必须大于0");
+        }
+    }
+
+    private static void release(StringBuilder sb) {
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        } else {
+            sb.setLength(0);
+        }
+    }
+
+    /**
+     * 追加字符串字面量，单次扫描转义引号、反斜杠和控制字符，null 追加 NULL
+     */
+    public static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("NULL");
+            return;
+        }
+        sb.append('"');
+        int start = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            String escape = c < ESCAPES.length ? ESCAPES[c] : null;
+            if (escape != null) {
+                sb.append(value, start, i).append(escape);
+                start = i + 1;
+            }
+        }
+        sb.append(value, start, value.length()).append('"');
+    }
+
+    /**
+     * 追加非字符串字段的值，null 追加 NULL
+     */
+    public static void appendValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("NULL");
+        } else if (value instanceof Boolean) {
+            sb.append(((Boolean) value).booleanValue());
+        } else {
+            sb.append(value);
+        }
+    }
+
+    /**
+     * 统计 [start, end) 区间的 UTF-8 字节数
+     */
+    public static int utf8Length(CharSequence s, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,368 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译期为实体生成 {@link EntityMapper}
+ * 处理标记了 @NebulaEntity 或含 @Vid、@EdgeFrom、@EdgeTo 字段的类，
+ * 私有字段通过 getX/isX、setX 访问；缺少访问方式、无可用无参构造或为泛型类时跳过，运行时退回反射
+ * <p>
+ * 使用方式：把本 jar 加入 maven-compiler-plugin 的 annotationProcessorPaths，
+ * 并在 annotationProcessors 中声明本类；与 Lombok 一起使用时 Lombok 需排在前面
+ */
+@SupportedAnnotationTypes({
+        "io.github.BarrelStopHere.nebula.annotation.NebulaEntity",
+        "io.github.BarrelStopHere.nebula.annotation.Vid",
+        "io.github.BarrelStopHere.nebula.annotation.EdgeFrom",
+        "io.github.BarrelStopHere.nebula.annotation.EdgeTo"})
+public class NebulaMapperProcessor extends AbstractProcessor {
+
+    private static final String ANNOTATION_PACKAGE = "io.github.BarrelStopHere.nebula.annotation.";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> entities = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    entities.add((TypeElement) element);
+                } else if (element.getKind() == ElementKind.FIELD) {
+                    entities.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement entity : entities) {
+            if (generated.add(entity.getQualifiedName().toString())) {
+                try {
+                    generate(entity);
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "生成映射类失败: " + e.getMessage(), entity);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement entity) throws IOException {
+        String reason = unsupported(entity);
+        List<VariableElement> keys = new ArrayList<>(4);
+        List<VariableElement> props = new ArrayList<>();
+        List<VariableElement> settable = new ArrayList<>();
+        VariableElement vid = null, from = null, to = null, rank = null;
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+            boolean ignored = annotated(field, "NebulaIgnore");
+            if (!ignored && !modifiers.contains(Modifier.FINAL)) {
+                settable.add(field);
+            }
+            if (annotated(field, "Vid")) {
+                vid = field;
+            } else if (annotated(field, "EdgeFrom")) {
+                from = field;
+            } else if (annotated(field, "EdgeTo")) {
+                to = field;
+            } else if (annotated(field, "EdgeRank")) {
+                rank = field;
+            } else if (!ignored) {
+                props.add(field);
+                continue;
+            }
+            keys.add(field);
+        }
+        for (int i = 0; reason == null && i < keys.size() + props.size(); i++) {
+            VariableElement field = i < keys.size() ? keys.get(i) : props.get(i - keys.size());
+            if (reader(entity, field) == null) {
+                reason = "字段[" + field.getSimpleName() + "]不可读";
+            }
+        }
+        for (int i = 0; reason == null && i < settable.size(); i++) {
+            if (writer(entity, settable.get(i)) == null) {
+                reason = "字段[" + settable.get(i).getSimpleName() + "]不可写";
+            }
+        }
+        if (reason != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "跳过生成 " + entity.getQualifiedName() + " 的映射类: " + reason, entity);
+            return;
+        }
+
+        String pkg = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String type = entity.getQualifiedName().toString();
+        String mapperName = (pkg.isEmpty() ? type : type.substring(pkg.length() + 1)).replace('.', '_')
+                + EntityMappers.SUFFIX;
+
+        StringBuilder sb = new StringBuilder();
+        if (!pkg.isEmpty()) {
+            sb.append("package ").append(pkg).append(";\n\n");
+        }
+        sb.append("import com.vesoft.nebula.Value;\n")
+                .append("import io.github.BarrelStopHere.nebula.expand.EntityMapper;\n")
+                .append("import io.github.BarrelStopHere.nebula.expand.EntityMappers;\n")
+                .append("import io.github.BarrelStopHere.nebula.expand.NGqlEncoder;\n")
+                .append("import io.github.BarrelStopHere.nebula.expand.ValueDecoders;\n\n")
+                .append("import java.util.Map;\n")
+                .append("import java.util.function.Function;\n\n")
+                .append("/**\n * {@link ").append(type).append("} 的映射类，由 NebulaMapperProcessor 生成，请勿手动修改\n */\n")
+                .append("public final class ").append(mapperName)
+                .append(" implements EntityMapper<").append(type).append("> {\n\n");
+
+        sb.append("    private static final String[] PROP_NAMES = {");
+        for (int i = 0; i < props.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append('"').append(props.get(i).getSimpleName()).append('"');
+        }
+        sb.append("};\n");
+        for (int i = 0; i < settable.size(); i++) {
+            VariableElement field = settable.get(i);
+            if (directDecode(field.asType()) == null) {
+                sb.append("    private static final Function<Value, Object> DECODER_").append(i)
+                        .append(" = ").append(decoderInit(type, field)).append(";\n");
+            }
+        }
+        sb.append('\n');
+
+        method(sb, "Class<" + type + "> entityType()", "return " + type + ".class;");
+        method(sb, "boolean isVertex()", "return " + (vid != null) + ";");
+        method(sb, "boolean isEdge()", "return " + (from != null && to != null) + ";");
+        method(sb, "boolean hasRank()", "return " + (rank != null) + ";");
+        method(sb, "String[] propNames()", "return PROP_NAMES.clone();");
+        method(sb, "Object vid(" + type + " entity)", "return " + keyRead(entity, vid) + ";");
+        method(sb, "Object from(" + type + " entity)", "return " + keyRead(entity, from) + ";");
+        method(sb, "Object to(" + type + " entity)", "return " + keyRead(entity, to) + ";");
+        method(sb, "Object rank(" + type + " entity)", "return " + keyRead(entity, rank) + ";");
+
+        StringBuilder body = new StringBuilder();
+        body.append("switch (index) {\n");
+        for (int i = 0; i < props.size(); i++) {
+            body.append("            case ").append(i).append(":\n")
+                    .append("                return ").append(reader(entity, props.get(i))).append(";\n");
+        }
+        body.append("            default:\n")
+                .append("                throw new IndexOutOfBoundsException(String.valueOf(index));\n        }");
+        method(sb, "Object prop(" + type + " entity, int index)", body.toString());
+
+        body.setLength(0);
+        for (int i = 0; i < props.size(); i++) {
+            VariableElement field = props.get(i);
+            String read = reader(entity, field);
+            if (i > 0) {
+                body.append("sb.append(',');\n        ");
+            }
+            TypeMirror fieldType = field.asType();
+            if (fieldType.getKind().isPrimitive()) {
+                body.append("sb.append(").append(read).append(");\n        ");
+            } else if ("java.lang.String".equals(fieldType.toString())) {
+                body.append("NGqlEncoder.appendString(sb, ").append(read).append(");\n        ");
+            } else {
+                body.append("NGqlEncoder.appendValue(sb, ").append(read).append(");\n        ");
+            }
+        }
+        method(sb, "void appendProps(" + type + " entity, StringBuilder sb)", body.toString().trim());
+
+        body.setLength(0);
+        for (int i = 0; i < props.size(); i++) {
+            VariableElement field = props.get(i);
+            String read = reader(entity, field);
+            TypeKind kind = field.asType().getKind();
+            String value = kind == TypeKind.CHAR ? "String.valueOf(" + read + ")"
+                    : kind.isPrimitive() ? read : "EntityMappers.param(" + read + ")";
+            body.append("params.put(paramNames[").append(i).append("], ").append(value).append(");\n        ");
+        }
+        method(sb, "void putProps(" + type + " entity, String[] paramNames, Map<String, Object> params)",
+                body.toString().trim());
+
+        method(sb, type + " newInstance()", "return new " + type + "();");
+
+        body.setLength(0);
+        body.append("switch (fieldName) {\n");
+        for (int i = 0; i < settable.size(); i++) {
+            body.append("            case \"").append(settable.get(i).getSimpleName()).append("\":\n")
+                    .append("                return ").append(i).append(";\n");
+        }
+        body.append("            default:\n                return -1;\n        }");
+        method(sb, "int fieldIndex(String fieldName)", body.toString());
+
+        body.setLength(0);
+        body.append("switch (fieldIndex) {\n");
+        for (int i = 0; i < settable.size(); i++) {
+            VariableElement field = settable.get(i);
+            TypeMirror fieldType = field.asType();
+            String direct = directDecode(fieldType);
+            String value;
+            if (direct != null) {
+                value = direct;
+            } else if (fieldType.getKind().isPrimitive()) {
+                value = "(" + processingEnv.getTypeUtils().boxedClass((PrimitiveType) fieldType)
+                        .getQualifiedName() + ") DECODER_" + i + ".apply(value)";
+            } else {
+                value = "(" + processingEnv.getTypeUtils().erasure(fieldType) + ") DECODER_" + i + ".apply(value)";
+            }
+            body.append("            case ").append(i).append(":\n");
+            String assign = writer(entity, field).replace("$", value) + ";";
+            if (fieldType.getKind().isPrimitive()) {
+                // NULL 保持字段默认值
+                body.append("                if (!ValueDecoders.isNull(value)) {\n")
+                        .append("                    ").append(assign).append("\n")
+                        .append("                }\n");
+            } else {
+                body.append("                ").append(assign).append("\n");
+            }
+            body.append("                return;\n");
+        }
+        body.append("            default:\n        }");
+        sb.append("    @Override\n    @SuppressWarnings(\"unchecked\")\n");
+        sb.append("    public void set(").append(type).append(" entity, int fieldIndex, Value value) {\n        ")
+                .append(body).append("\n    }\n}\n");
+
+        JavaFileObject file = processingEnv.getFiler()
+                .createSourceFile(pkg.isEmpty() ? mapperName : pkg + "." + mapperName, entity);
+        try (Writer writer = file.openWriter()) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private static void method(StringBuilder sb, String signature, String body) {
+        sb.append("    @Override\n    public ").append(signature).append(" {\n        ")
+                .append(body).append("\n    }\n\n");
+    }
+
+    /**
+     * 无法生成时返回原因
+     */
+    private String unsupported(TypeElement entity) {
+        if (entity.getModifiers().contains(Modifier.PRIVATE) || entity.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "类为 private 或 abstract";
+        }
+        if (entity.getNestingKind() != NestingKind.TOP_LEVEL
+                && (entity.getNestingKind() != NestingKind.MEMBER || !entity.getModifiers().contains(Modifier.STATIC))) {
+            return "只支持顶层类和静态内部类";
+        }
+        if (!entity.getTypeParameters().isEmpty()) {
+            return "不支持泛型类";
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(entity.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return null;
+            }
+        }
+        return "缺少非 private 的无参构造";
+    }
+
+    private static boolean annotated(Element element, String simpleName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(ANNOTATION_PACKAGE + simpleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String keyRead(TypeElement entity, VariableElement field) {
+        return field == null ? "null" : reader(entity, field);
+    }
+
+    /**
+     * 读取表达式，不可读时返回 null
+     */
+    private String reader(TypeElement entity, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "entity." + name;
+        }
+        String getter = accessor(entity, field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get", name, 0);
+        if (getter == null && field.asType().getKind() == TypeKind.BOOLEAN) {
+            getter = accessor(entity, "get", name, 0);
+        }
+        return getter == null ? null : "entity." + getter + "()";
+    }
+
+    /**
+     * 赋值表达式，值的位置用 $ 占位，不可写时返回 null
+     */
+    private String writer(TypeElement entity, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "entity." + name + " = $";
+        }
+        String setter = accessor(entity, "set", name, 1);
+        return setter == null ? null : "entity." + setter + "($)";
+    }
+
+    private static String accessor(TypeElement entity, String prefix, String fieldName, int params) {
+        String name = prefix + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(entity.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == params
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 常用基本类型直接解码，不装箱
+     */
+    private static String directDecode(TypeMirror type) {
+        switch (type.getKind()) {
+            case LONG:
+                return "ValueDecoders.toLong(value)";
+            case INT:
+                return "(int) ValueDecoders.toLong(value)";
+            case DOUBLE:
+                return "ValueDecoders.toDouble(value)";
+            case FLOAT:
+                return "(float) ValueDecoders.toDouble(value)";
+            case BOOLEAN:
+                return "ValueDecoders.toBoolean(value)";
+            default:
+                return null;
+        }
+    }
+
+    private String decoderInit(String owner, VariableElement field) {
+        TypeMirror type = field.asType();
+        if (type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return "ValueDecoders.fieldDecoder(" + owner + ".class, \"" + field.getSimpleName() + "\")";
+        }
+        String erasure = processingEnv.getTypeUtils().erasure(type).toString();
+        return "ValueDecoders.decoder(" + erasure + ".class, " + erasure + ".class)";
+    }
+}
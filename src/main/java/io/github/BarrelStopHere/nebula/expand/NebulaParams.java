@@ -0,0 +1,70 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 参数化查询的参数构建
+ * 构建时一次性把 Java 值规整为客户端支持的类型（枚举、字符、数组等），
+ * 得到的不可变参数表可在多次调用间复用
+ */
+public final class NebulaParams {
+
+    private final Map<String, Object> params = new HashMap<>();
+
+    private NebulaParams() {
+    }
+
+    public static NebulaParams create() {
+        return new NebulaParams();
+    }
+
+    public static Map<String, Object> of(String name, Object value) {
+        return create().put(name, value).build();
+    }
+
+    public NebulaParams put(String name, Object value) {
+        if (name.startsWith("$")) {
+            name = name.substring(1);
+        }
+        params.put(name, normalize(value));
+        return this;
+    }
+
+    public Map<String, Object> build() {
+        return Collections.unmodifiableMap(new HashMap<>(params));
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Character) {
+            return value.toString();
+        }
+        if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            List<Object> list = new ArrayList<>(array.length);
+            for (Object element : array) {
+                list.add(normalize(element));
+            }
+            return list;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            Collection<Object> normalized = value instanceof Set
+                    ? new LinkedHashSet<>(collection.size()) : new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                normalized.add(normalize(element));
+            }
+            return normalized;
+        }
+        return value;
+    }
+}
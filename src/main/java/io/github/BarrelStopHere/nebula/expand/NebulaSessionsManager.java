@@ -1,13 +1,15 @@
 package io.github.BarrelStopHere.nebula.expand;
 
-import com.google.common.collect.Lists;
 import com.jwwd.flow.nebula.config.CustomCondition;
 import com.vesoft.nebula.client.graph.NebulaPoolConfig;
 import com.vesoft.nebula.client.graph.SessionsManagerConfig;
 import com.vesoft.nebula.client.graph.data.HostAddress;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +30,10 @@ public class NebulaSessionsManager {
     private final Map<String, ExpandSessionManager> sessionsManagerMap = new HashMap<>();
     private final List<HostAddress> hostAddresses;
     private final List<String> spaces;
+    /**
+     * nebula.pool.shared 开启时所有 space 共用的连接池
+     */
+    private SharedSessionPool sharedPool;
 
     @Autowired
     public NebulaSessionsManager(Environment env) {
@@ -49,10 +55,52 @@ public class NebulaSessionsManager {
 
     }
 
+    /**
+     * 各 space 的连接池并发初始化，nebula.init-parallelism 控制并发数；
+     * 延迟初始化时这里只创建管理器，首次使用时才建立连接
+     */
     @PostConstruct
     public void init() {
-        for (String space : spaces) {
-            sessionsManagerMap.putIfAbsent(space, of(space));
+        if (env.getProperty("nebula.pool.shared", Boolean.class, false)) {
+            NebulaPoolConfig sharedConfig = new NebulaPoolConfig();
+            int sharedMaxTotal = env.getProperty("nebula.pool.shared-max-total", Integer.class, 100);
+            sharedConfig.setMaxConnSize(sharedMaxTotal);
+            sharedPool = new SharedSessionPool(sharedConfig, sharedMaxTotal);
+        }
+        int parallelism = Math.min(env.getProperty("nebula.init-parallelism", Integer.class, 4), spaces.size());
+        if (parallelism <= 1) {
+            for (String space : spaces) {
+                sessionsManagerMap.putIfAbsent(space, of(space));
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            Map<String, CompletableFuture<ExpandSessionManager>> futures = new LinkedHashMap<>();
+            for (String space : spaces) {
+                futures.putIfAbsent(space, CompletableFuture.supplyAsync(() -> of(space), executor));
+            }
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                    .exceptionally(e -> null).join();
+            RuntimeException failure = null;
+            for (Map.Entry<String, CompletableFuture<ExpandSessionManager>> entry : futures.entrySet()) {
+                try {
+                    sessionsManagerMap.put(entry.getKey(), entry.getValue().join());
+                } catch (CompletionException e) {
+                    log.error("space {} 连接池初始化失败", entry.getKey(), e.getCause());
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException
+                                ? (RuntimeException) e.getCause() : e;
+                    }
+                }
+            }
+            if (failure != null) {
+                // 已建立的连接池不再使用，先关闭再抛出
+                destroy();
+                throw failure;
+            }
+        } finally {
+            executor.shutdown();
         }
     }
 
@@ -66,6 +114,9 @@ public class NebulaSessionsManager {
                 log.error("关闭连接池失败", e);
             }
         });
+        if (sharedPool != null) {
+            sharedPool.close();
+        }
     }
 
     @Bean
@@ -74,25 +125,50 @@ public class NebulaSessionsManager {
     }
 
     private ExpandSessionManager of(String space) {
+        // 共享连接池下 maxConnSize 只是单个 space 的 session 上限，默认可用满共享池
         NebulaPoolConfig poolConfig = new NebulaPoolConfig();
-        poolConfig.setMaxConnSize(100);
+        poolConfig.setMaxConnSize(env.getProperty("nebula.pool.max-conn-size", Integer.class,
+                sharedPool != null ? sharedPool.getMaxTotal() : 100));
 
         SessionsManagerConfig managerConfig = new SessionsManagerConfig();
-        managerConfig.setAddresses(Lists.newArrayList(getHostAddress()));
+        managerConfig.setAddresses(new ArrayList<>(hostAddresses));
         managerConfig.setUserName(env.getProperty("nebula.username"));
         managerConfig.setPassword(env.getProperty("nebula.password"));
         managerConfig.setSpaceName(space);
         managerConfig.setReconnect(true);
         managerConfig.setPoolConfig(poolConfig);
 
-        return new ExpandSessionManager(managerConfig);
-    }
-
-    /**
-     * 简易负载均衡
-     */
-    private HostAddress getHostAddress() {
-        int pos = ThreadLocalRandom.current().nextInt(hostAddresses.size());
-        return hostAddresses.get(pos);
+        ExpandPoolConfig expandConfig = new ExpandPoolConfig();
+        expandConfig.setBorrowTimeoutMillis(
+                env.getProperty("nebula.pool.borrow-timeout", Long.class, expandConfig.getBorrowTimeoutMillis()));
+        if (sharedPool != null) {
+            // 预留名额可按 space 单独配置：nebula.pool.reserved.<space>，未配置 min-idle 时只保持预留数量的空闲 session
+            int reserved = env.getProperty("nebula.pool.reserved", Integer.class, expandConfig.getReservedSessions());
+            expandConfig.setReservedSessions(env.getProperty("nebula.pool.reserved." + space, Integer.class, reserved));
+            expandConfig.setMinIdle(expandConfig.getReservedSessions());
+        }
+        expandConfig.setMinIdle(env.getProperty("nebula.pool.min-idle", Integer.class, expandConfig.getMinIdle()));
+        expandConfig.setMaxIdle(env.getProperty("nebula.pool.max-idle", Integer.class, expandConfig.getMaxIdle()));
+        expandConfig.setMaxTotal(env.getProperty("nebula.pool.max-total", Integer.class, expandConfig.getMaxTotal()));
+        expandConfig.setValidateAfterIdleMillis(env.getProperty("nebula.pool.validate-after-idle",
+                Long.class, expandConfig.getValidateAfterIdleMillis()));
+        expandConfig.setIdleEvictMillis(env.getProperty("nebula.pool.idle-evict",
+                Long.class, expandConfig.getIdleEvictMillis()));
+        expandConfig.setHealthCheckIntervalMillis(env.getProperty("nebula.pool.health-check-interval",
+                Long.class, expandConfig.getHealthCheckIntervalMillis()));
+        expandConfig.setRoutingPolicy(env.getProperty("nebula.pool.routing",
+                RoutingPolicy.class, expandConfig.getRoutingPolicy()));
+        expandConfig.setEjectAfterFailures(env.getProperty("nebula.pool.eject-after-failures",
+                Integer.class, expandConfig.getEjectAfterFailures()));
+        expandConfig.setEjectMillis(env.getProperty("nebula.pool.eject-duration",
+                Long.class, expandConfig.getEjectMillis()));
+        expandConfig.setLazyInit(env.getProperty("nebula.pool.lazy-init", Boolean.class, expandConfig.isLazyInit()));
+        expandConfig.setInitParallelism(env.getProperty("nebula.pool.init-parallelism",
+                Integer.class, expandConfig.getInitParallelism()));
+        // 预建数量可按 space 单独配置：nebula.pool.warmup.<space>
+        int warmup = env.getProperty("nebula.pool.warmup", Integer.class, expandConfig.getWarmupSize());
+        expandConfig.setWarmupSize(env.getProperty("nebula.pool.warmup." + space, Integer.class, warmup));
+
+        return new ExpandSessionManager(managerConfig, expandConfig, sharedPool);
     }
 }
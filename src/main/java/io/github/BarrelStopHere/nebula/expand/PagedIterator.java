@@ -0,0 +1,103 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.client.graph.data.ResultSet;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * 分页迭代器
+ * 按页拉取查询结果并逐行延迟映射，当前页消费完后才拉取下一页，
+ * 内存占用只与页大小相关，与结果总量无关
+ */
+public class PagedIterator<T> implements Iterator<T> {
+
+    /**
+     * 分页语句构造
+     */
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        /**
+         * @param offset 已读取的行数
+         * @param last   上一页最后一个实体，第一页为 null，用于按排序键翻页
+         * @return 下一页的 nGql，需自行限制返回不超过 pageSize 行
+         */
+        String build(long offset, T last);
+    }
+
+    private final PageQuery<T> pageQuery;
+    private final Function<String, ResultSet> executor;
+    private final Class<T> clazz;
+    private final int pageSize;
+
+    private RowMappingPlan<T> plan;
+    private Iterator<Row> rows = Collections.emptyIterator();
+    private long offset = 0;
+    private T last;
+    private boolean lastPage = false;
+
+    public PagedIterator(PageQuery<T> pageQuery, Function<String, ResultSet> executor,
+                         Class<T> clazz, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize 必须大于0");
+        }
+        this.pageQuery = pageQuery;
+        this.executor = executor;
+        this.clazz = clazz;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 在语句末尾追加 SKIP/LIMIT 翻页，适用于 MATCH 等支持 SKIP 的语句
+     */
+    public static <T> PageQuery<T> skipLimit(String nGql, int pageSize) {
+        return (offset, last) -> nGql + " SKIP " + offset + " LIMIT " + pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!rows.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            fetchPage();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        last = plan.map(rows.next());
+        offset++;
+        return last;
+    }
+
+    private void fetchPage() {
+        // 先释放上一页，再拉取下一页
+        rows = Collections.emptyIterator();
+        ResultSet resultSet = executor.apply(pageQuery.build(offset, last));
+        if (resultSet == null) {
+            lastPage = true;
+            return;
+        }
+        if (!resultSet.isSucceeded()) {
+            throw new NebulaException("分页查询失败: " + StringUtils.defaultString(resultSet.getErrorMessage()));
+        }
+        List<Row> page = resultSet.getRows();
+        if (page.size() < pageSize) {
+            lastPage = true;
+        }
+        if (!page.isEmpty()) {
+            plan = RowMappingPlan.of(clazz, resultSet.getColumnNames());
+        }
+        rows = page.iterator();
+    }
+}
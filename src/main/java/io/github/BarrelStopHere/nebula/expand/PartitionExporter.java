@@ -0,0 +1,446 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.NullType;
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import com.vesoft.nebula.client.graph.data.HostAddress;
+import com.vesoft.nebula.client.graph.data.ValueWrapper;
+import com.vesoft.nebula.client.meta.MetaClient;
+import com.vesoft.nebula.client.storage.StorageClient;
+import com.vesoft.nebula.client.storage.data.EdgeRow;
+import com.vesoft.nebula.client.storage.data.VertexRow;
+import com.vesoft.nebula.client.storage.scan.ScanEdgeResult;
+import com.vesoft.nebula.client.storage.scan.ScanEdgeResultIterator;
+import com.vesoft.nebula.client.storage.scan.ScanVertexResult;
+import com.vesoft.nebula.client.storage.scan.ScanVertexResultIterator;
+import io.github.BarrelStopHere.nebula.annotation.EdgeFrom;
+import io.github.BarrelStopHere.nebula.annotation.EdgeRank;
+import io.github.BarrelStopHere.nebula.annotation.EdgeTo;
+import io.github.BarrelStopHere.nebula.annotation.Vid;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按分区并行导出 tag / 边类型
+ * 多个扫描线程各自通过 storage 扫描一个分区，按实体映射后格式化为文本块，
+ * 经有界队列交给调用线程顺序写入文件；内存占用只与并发分区数、扫描批大小和队列容量有关，与数据量无关。
+ * 单个分区扫描失败不影响其他分区，失败的分区记录在结果中；分区的行边扫描边写出，
+ * 失败分区在失败前已写出的行会留在文件中，因此导出后必须检查 {@link ExportProgress#getFailedPartitions()}
+ * （或 {@link ExportProgress#isSucceeded()}），也可配置 {@link ExportConfig#isFailOnPartitionError()} 使首个失败即中止
+ *
+ * @see io.github.BarrelStopHere.nebula.NebulaUtil#exportVertices
+ * @see io.github.BarrelStopHere.nebula.NebulaUtil#exportEdges
+ */
+@Slf4j
+public class PartitionExporter<T> {
+
+    /**
+     * 扫描一个分区，按批回调；每行的值依次为键列和属性列，与构造时的列名一一对应
+     */
+    @FunctionalInterface
+    public interface PartScanner {
+        void scan(int part, Consumer<List<Row>> batches) throws Exception;
+    }
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+    private static final long POLL_MILLIS = 100;
+    private static final int CHUNK_CHARS = 64 * 1024;
+    private static final int WRITE_BUFFER = 256 * 1024;
+    private static final Value NULL_VALUE = Value.nVal(NullType.__NULL__);
+
+    private final List<Integer> partitions;
+    private final PartScanner scanner;
+    private final RowMappingPlan<T> plan;
+    private final LineFormatter<T> formatter;
+    private final Path output;
+    private final ExportConfig config;
+    private final BlockingQueue<String> chunks;
+    private final String pill = new String();
+    private volatile boolean cancelled = false;
+    private volatile Consumer<ExportProgress> progressListener;
+
+    private final AtomicInteger partitionsDone = new AtomicInteger();
+    private final List<Integer> failedPartitions = new CopyOnWriteArrayList<>();
+    private final LongAdder rowsExported = new LongAdder();
+    private final LongAdder partialRows = new LongAdder();
+    private final AtomicInteger rowErrors = new AtomicInteger();
+    private final LongAdder charsWritten = new LongAdder();
+    private volatile long startNanos;
+
+    /**
+     * @param columns 列名，按 {@link RowMappingPlan} 的规则对应实体字段
+     */
+    public PartitionExporter(List<Integer> partitions, PartScanner scanner, Class<T> clazz, List<String> columns,
+                             LineFormatter<T> formatter, Path output, ExportConfig config) {
+        if (config.getPartitionParallelism() <= 0 || config.getScanBatchSize() <= 0 || config.getQueueCapacity() <= 0) {
+            throw new IllegalArgumentException("partitionParallelism、scanBatchSize、queueCapacity 必须大于0");
+        }
+        this.partitions = partitions;
+        this.scanner = scanner;
+        this.plan = RowMappingPlan.of(clazz, columns);
+        this.formatter = formatter;
+        this.output = output;
+        this.config = config;
+        this.chunks = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    /**
+     * 通过 storage 扫描 tag 的全部顶点，键列为 @Vid 字段
+     */
+    public static <T> PartitionExporter<T> vertices(StorageClient client, List<HostAddress> metaAddresses,
+                                                    Class<T> clazz, String tagName, String space,
+                                                    LineFormatter<T> formatter, Path output, ExportConfig config) {
+        Field vidField = AbstractConvert.annotatedField(clazz, Vid.class);
+        if (vidField == null) {
+            throw new IllegalArgumentException("顶点必须包含@Id注解的ID字段");
+        }
+        List<String> props = returnCols(clazz, config);
+        List<String> columns = columns(props, vidField);
+        PartScanner scanner = (part, batches) -> {
+            ScanVertexResultIterator iterator = client.scanVertex(space, part, tagName, props,
+                    config.getScanBatchSize(), 0, Long.MAX_VALUE, config.isAllowReadFromFollower(), false);
+            while (iterator.hasNext()) {
+                ScanVertexResult result = iterator.next();
+                List<VertexRow> vertices = result.getVertices();
+                List<Row> rows = new ArrayList<>(vertices.size());
+                for (VertexRow vertex : vertices) {
+                    List<Value> values = new ArrayList<>(columns.size());
+                    values.add(vertex.getVid().getValue());
+                    addProps(values, vertex.getProps(), props);
+                    rows.add(new Row(values));
+                }
+                batches.accept(rows);
+            }
+        };
+        return new PartitionExporter<>(partitions(metaAddresses, space), scanner, clazz, columns,
+                formatter, output, config);
+    }
+
+    /**
+     * 通过 storage 扫描边类型的全部边，键列为 @EdgeFrom、@EdgeTo 和 @EdgeRank（如有）字段
+     */
+    public static <T> PartitionExporter<T> edges(StorageClient client, List<HostAddress> metaAddresses,
+                                                 Class<T> clazz, String edgeName, String space,
+                                                 LineFormatter<T> formatter, Path output, ExportConfig config) {
+        Field fromField = AbstractConvert.annotatedField(clazz, EdgeFrom.class);
+        Field toField = AbstractConvert.annotatedField(clazz, EdgeTo.class);
+        if (fromField == null || toField == null) {
+            throw new IllegalArgumentException("边必须包含起点（@EdgeFrom）和终点（@EdgeTo）字段");
+        }
+        Field rankField = AbstractConvert.annotatedField(clazz, EdgeRank.class);
+        List<String> props = returnCols(clazz, config);
+        List<String> columns = rankField == null
+                ? columns(props, fromField, toField) : columns(props, fromField, toField, rankField);
+        PartScanner scanner = (part, batches) -> {
+            ScanEdgeResultIterator iterator = client.scanEdge(space, part, edgeName, props,
+                    config.getScanBatchSize(), 0, Long.MAX_VALUE, config.isAllowReadFromFollower(), false);
+            while (iterator.hasNext()) {
+                ScanEdgeResult result = iterator.next();
+                List<EdgeRow> edges = result.getEdges();
+                List<Row> rows = new ArrayList<>(edges.size());
+                for (EdgeRow edge : edges) {
+                    List<Value> values = new ArrayList<>(columns.size());
+                    values.add(edge.getSrcId().getValue());
+                    values.add(edge.getDstId().getValue());
+                    if (rankField != null) {
+                        values.add(Value.iVal(edge.getRank()));
+                    }
+                    addProps(values, edge.getProps(), props);
+                    rows.add(new Row(values));
+                }
+                batches.accept(rows);
+            }
+        };
+        return new PartitionExporter<>(partitions(metaAddresses, space), scanner, clazz, columns,
+                formatter, output, config);
+    }
+
+    /**
+     * 执行导出，阻塞至全部分区扫描完并写入文件，或被 {@link #cancel()}；
+     * 有分区失败时仍正常返回（除非配置了 failOnPartitionError），调用方需检查结果中的失败分区
+     *
+     * @throws NebulaException 配置了 failOnPartitionError 且有分区扫描失败
+     */
+    public ExportProgress run() throws IOException {
+        startNanos = System.nanoTime();
+        log.info("开始导出到[{}]，分区数 {}", output, partitions.size());
+        int threads = Math.max(1, Math.min(config.getPartitionParallelism(), partitions.size()));
+        ExecutorService scanners = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "nebula-export-scan-" + THREAD_INDEX.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger remaining = new AtomicInteger(partitions.size());
+        for (Integer part : partitions) {
+            scanners.execute(() -> {
+                try {
+                    scanPart(part);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        put(pill);
+                    }
+                }
+            });
+        }
+        if (partitions.isEmpty()) {
+            put(pill);
+        }
+        ScheduledExecutorService reporter = startReporter();
+        try (Writer writer = open()) {
+            String header = formatter.header();
+            if (header != null) {
+                writer.write(header);
+                writer.write('\n');
+            }
+            String chunk;
+            while ((chunk = take()) != null && chunk != pill) {
+                writer.write(chunk);
+                charsWritten.add(chunk.length());
+            }
+        } catch (IOException | RuntimeException e) {
+            cancelled = true;
+            throw e;
+        } finally {
+            scanners.shutdownNow();
+            try {
+                scanners.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+        }
+        ExportProgress progress = progress();
+        if (!failedPartitions.isEmpty()) {
+            log.error("导出到[{}]不完整，失败分区 {}，其中已写出 {} 行: {}",
+                    output, progress.getFailedPartitions(), progress.getPartialRows(), progress);
+            if (config.isFailOnPartitionError()) {
+                throw new NebulaException("导出到[" + output + "]失败，分区 " + progress.getFailedPartitions() + " 扫描失败");
+            }
+        } else {
+            log.info("导出到[{}]{}: {}", output, cancelled ? "已取消" : "结束", progress);
+        }
+        return progress;
+    }
+
+    /**
+     * 停止导出，已写入文件的内容保留
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 每个进度日志间隔回调一次
+     */
+    public void setProgressListener(Consumer<ExportProgress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public ExportProgress progress() {
+        long start = startNanos;
+        long elapsed = start == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new ExportProgress(partitions.size(), partitionsDone.get(), new ArrayList<>(failedPartitions),
+                rowsExported.sum(), partialRows.sum(), rowErrors.get(), charsWritten.sum(), elapsed);
+    }
+
+    private void scanPart(int part) {
+        StringBuilder sb = new StringBuilder(CHUNK_CHARS + 1024);
+        // [0] 已交给写文件线程的行数，[1] 仍在 sb 中的行数
+        long[] rows = new long[2];
+        try {
+            scanner.scan(part, batch -> {
+                for (Row row : batch) {
+                    T entity;
+                    try {
+                        entity = plan.map(row);
+                    } catch (RuntimeException e) {
+                        if (rowErrors.incrementAndGet() <= config.getMaxLoggedErrors()) {
+                            log.error("导出分区[{}]映射失败: {}，行: {}", part, e.getMessage(), row);
+                        }
+                        continue;
+                    }
+                    formatter.format(entity, sb);
+                    sb.append('\n');
+                    rows[1]++;
+                    if (sb.length() >= CHUNK_CHARS) {
+                        flush(sb, rows);
+                    }
+                }
+            });
+            flush(sb, rows);
+            partitionsDone.incrementAndGet();
+        } catch (CancellationException e) {
+            log.info("导出分区[{}]已取消", part);
+        } catch (Exception e) {
+            if (!cancelled) {
+                // sb 中未写出的行丢弃，已写出的行无法撤回，记为不完整
+                failedPartitions.add(part);
+                partialRows.add(rows[0]);
+                log.error("导出分区[{}]扫描失败，失败前已写出 {} 行", part, rows[0], e);
+                if (config.isFailOnPartitionError()) {
+                    cancelled = true;
+                }
+            }
+        }
+    }
+
+    private void flush(StringBuilder sb, long[] rows) {
+        if (sb.length() == 0) {
+            return;
+        }
+        if (!put(sb.toString())) {
+            throw new CancellationException();
+        }
+        sb.setLength(0);
+        rowsExported.add(rows[1]);
+        rows[0] += rows[1];
+        rows[1] = 0;
+    }
+
+    private Writer open() throws IOException {
+        OutputStream out = Files.newOutputStream(output);
+        try {
+            if (config.isGzip()) {
+                out = new GZIPOutputStream(out, WRITE_BUFFER);
+            }
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    private ScheduledExecutorService startReporter() {
+        long interval = config.getReportIntervalMillis();
+        if (interval <= 0) {
+            return null;
+        }
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nebula-export-report-" + THREAD_INDEX.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            ExportProgress progress = progress();
+            log.info("导出到[{}] 分区 {}/{}（失败 {}），已导出 {} 行（{} 行/秒），映射失败 {} 行",
+                    output, progress.getPartitionsDone(), progress.getPartitions(),
+                    progress.getFailedPartitions().size(), progress.getRowsExported(),
+                    (long) progress.getRowsPerSecond(), progress.getRowErrors());
+            Consumer<ExportProgress> listener = progressListener;
+            if (listener != null) {
+                try {
+                    listener.accept(progress);
+                } catch (RuntimeException e) {
+                    log.warn("导出进度回调异常: {}", e.getMessage());
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return reporter;
+    }
+
+    /**
+     * 放入队列，队列满时等待，取消后返回 false
+     */
+    private boolean put(String chunk) {
+        try {
+            while (!cancelled) {
+                if (chunks.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+        return false;
+    }
+
+    /**
+     * 从队列取出，队列空时等待，取消后返回 null
+     */
+    private String take() {
+        try {
+            while (!cancelled) {
+                String chunk = chunks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    return chunk;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+        return null;
+    }
+
+    private static List<String> returnCols(Class<?> clazz, ExportConfig config) {
+        if (!config.getReturnCols().isEmpty()) {
+            return new ArrayList<>(config.getReturnCols());
+        }
+        return Arrays.asList(new UpdateConvert<>(clazz).getPropNames());
+    }
+
+    /**
+     * 键列在前，属性列在后；列名即字段名或属性名，由 {@link RowMappingPlan} 按名称对应字段
+     */
+    static List<String> columns(List<String> props, Field... keyFields) {
+        List<String> columns = new ArrayList<>(keyFields.length + props.size());
+        for (Field field : keyFields) {
+            columns.add(field.getName());
+        }
+        columns.addAll(props);
+        return Collections.unmodifiableList(columns);
+    }
+
+    private static void addProps(List<Value> values, Map<String, ValueWrapper> propValues, List<String> props) {
+        for (String prop : props) {
+            ValueWrapper value = propValues.get(prop);
+            values.add(value == null ? NULL_VALUE : value.getValue());
+        }
+    }
+
+    private static List<Integer> partitions(List<HostAddress> metaAddresses, String space) {
+        MetaClient metaClient = null;
+        try {
+            metaClient = new MetaClient(metaAddresses);
+            metaClient.connect();
+            List<Integer> parts = new ArrayList<>(metaClient.getPartsAlloc(space).keySet());
+            Collections.sort(parts);
+            return parts;
+        } catch (Exception e) {
+            throw new NebulaException("获取 space[" + space + "]的分区失败: " + e.getMessage());
+        } finally {
+            if (metaClient != null) {
+                metaClient.close();
+            }
+        }
+    }
+}
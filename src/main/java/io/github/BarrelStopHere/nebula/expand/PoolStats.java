@@ -0,0 +1,59 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * ExpandSessionManager 连接池计数快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PoolStats {
+
+    /**
+     * 当前借出的 session 数
+     */
+    private final int inUse;
+
+    /**
+     * 当前空闲的 session 数
+     */
+    private final int idle;
+
+    /**
+     * 当前池中 session 总数
+     */
+    private final int total;
+
+    /**
+     * 累计创建的 session 数
+     */
+    private final long created;
+
+    /**
+     * 累计因失效被替换的 session 数
+     */
+    private final long replaced;
+
+    /**
+     * 累计因空闲被回收的 session 数
+     */
+    private final long evicted;
+
+    /**
+     * 累计借用次数
+     */
+    private final long borrowed;
+
+    /**
+     * 累计因等待超时借用失败的次数
+     */
+    private final long borrowTimeouts;
+
+    /**
+     * 累计从其他 space 接管并切换过来的 session 数
+     */
+    private final long switched;
+}
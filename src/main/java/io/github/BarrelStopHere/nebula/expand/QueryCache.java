@@ -0,0 +1,277 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 查询结果缓存
+ * 以 (space, nGql, 实体类) 为键缓存映射后的实体列表，按容量淘汰并带 TTL；
+ * 写入某个 tag / edge 时，失效同一 space 中语句引用了该名称的条目
+ * <p>
+ * 命中时不加锁，只标记条目被访问过；淘汰按 CLOCK（二次机会）近似 LRU：
+ * 最早写入的条目若在上一轮之后被访问过，则移到队尾保留，否则淘汰
+ * <p>
+ * 命中时返回新的列表，调用方可修改列表本身；列表中的实体在调用方之间共享，调用方不应修改
+ */
+public class QueryCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    // 写入顺序，只在持有 this 时访问
+    private final LinkedHashMap<Key, Entry> order = new LinkedHashMap<>();
+    // space + 语句中出现的标识符 -> 引用它的缓存键，只在持有 this 时访问
+    private final Map<String, Set<Key>> nameIndex = new HashMap<>();
+    // 失效计数，键为 space 或 space + 名称，只记录发生过失效的；
+    // 查询开始前后语句涉及的计数之和不一致时不写入缓存，避免并发写入后缓存旧结果
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong clearGeneration = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public QueryCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("maxEntries、ttl 必须大于0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * 未命中或已过期时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String space, String nGql, Class<T> clazz) {
+        Key key = new Key(space, nGql, clazz);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.createdAt < ttlNanos) {
+                if (!entry.accessed) {
+                    entry.accessed = true;
+                }
+                hits.increment();
+                return new ArrayList<>((List<T>) entry.value);
+            }
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    remove(key);
+                    evictions.increment();
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 查询前获取，写入缓存时传回；只与语句引用的 tag / edge 有关，其他名称的写入不影响
+     */
+    public long generation(String space, String nGql) {
+        return generation(space, names(space, nGql));
+    }
+
+    public <T> void put(String space, String nGql, Class<T> clazz, List<T> value, long generationAtQuery) {
+        Key key = new Key(space, nGql, clazz);
+        List<T> copy = Collections.unmodifiableList(new ArrayList<>(value));
+        Set<String> names = names(space, nGql);
+        synchronized (this) {
+            if (generation(space, names) != generationAtQuery) {
+                return;
+            }
+            remove(key);
+            Entry entry = new Entry(copy, names, System.nanoTime());
+            entries.put(key, entry);
+            order.put(key, entry);
+            for (String name : names) {
+                nameIndex.computeIfAbsent(name, n -> new HashSet<>()).add(key);
+            }
+            evictOverflow();
+        }
+    }
+
+    /**
+     * 失效同一 space 中引用了 tag / edge 名称的条目
+     */
+    public void invalidate(String space, String schemaName) {
+        String indexKey = indexKey(space, schemaName);
+        synchronized (this) {
+            generations.computeIfAbsent(indexKey, k -> new AtomicLong()).incrementAndGet();
+            Set<Key> keys = nameIndex.remove(indexKey);
+            if (keys == null) {
+                return;
+            }
+            for (Key key : new ArrayList<>(keys)) {
+                if (remove(key)) {
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * 失效 space 中的全部条目，用于无法确定涉及哪些 tag 的写入（如删除顶点）
+     */
+    public synchronized void invalidateSpace(String space) {
+        generations.computeIfAbsent(space, k -> new AtomicLong()).incrementAndGet();
+        Iterator<Map.Entry<Key, Entry>> it = order.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getKey().space.equals(space)) {
+                it.remove();
+                entries.remove(entry.getKey());
+                unindex(entry.getKey(), entry.getValue());
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        clearGeneration.incrementAndGet();
+        entries.clear();
+        order.clear();
+        nameIndex.clear();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), entries.size());
+    }
+
+    private long generation(String space, Set<String> names) {
+        long generation = clearGeneration.get() + counter(space);
+        for (String name : names) {
+            generation += counter(name);
+        }
+        return generation;
+    }
+
+    private long counter(String key) {
+        AtomicLong counter = generations.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private void evictOverflow() {
+        // 每个条目最多获得一次二次机会，两轮内必然淘汰到容量以内
+        int budget = order.size() * 2;
+        while (order.size() > maxEntries && budget-- > 0) {
+            Iterator<Map.Entry<Key, Entry>> it = order.entrySet().iterator();
+            Map.Entry<Key, Entry> eldest = it.next();
+            Key key = eldest.getKey();
+            Entry entry = eldest.getValue();
+            it.remove();
+            if (entry.accessed) {
+                entry.accessed = false;
+                order.put(key, entry);
+                continue;
+            }
+            entries.remove(key);
+            unindex(key, entry);
+            evictions.increment();
+        }
+    }
+
+    private boolean remove(Key key) {
+        Entry entry = order.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entries.remove(key);
+        unindex(key, entry);
+        return true;
+    }
+
+    private void unindex(Key key, Entry entry) {
+        for (String name : entry.names) {
+            Set<Key> keys = nameIndex.get(name);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    nameIndex.remove(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * 提取语句中的标识符，作为失效索引
+     */
+    private static Set<String> names(String space, String nGql) {
+        Set<String> names = new HashSet<>();
+        int i = 0, n = nGql.length();
+        while (i < n) {
+            char c = nGql.charAt(i);
+            if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < n && (Character.isLetterOrDigit(nGql.charAt(i)) || nGql.charAt(i) == '_')) {
+                    i++;
+                }
+                names.add(indexKey(space, nGql.substring(start, i)));
+            } else {
+                i++;
+            }
+        }
+        return names;
+    }
+
+    private static String indexKey(String space, String name) {
+        return space + '\u0000' + name;
+    }
+
+    private static final class Entry {
+        private final List<?> value;
+        private final Set<String> names;
+        private final long createdAt;
+        private volatile boolean accessed;
+
+        Entry(List<?> value, Set<String> names, long createdAt) {
+            this.value = value;
+            this.names = names;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Key {
+        private final String space;
+        private final String nGql;
+        private final Class<?> clazz;
+        private final int hash;
+
+        Key(String space, String nGql, Class<?> clazz) {
+            this.space = space;
+            this.nGql = nGql;
+            this.clazz = clazz;
+            this.hash = Objects.hash(space, nGql, clazz);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return clazz == other.clazz && space.equals(other.space) && nGql.equals(other.nGql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一次语句执行的耗时与结果
+ */
+@Getter
+@AllArgsConstructor
+public class QueryEvent {
+
+    private final String space;
+
+    private final String nGql;
+
+    /**
+     * 等待借用 session 的耗时（纳秒）
+     */
+    private final long acquireNanos;
+
+    /**
+     * 客户端往返耗时（纳秒），不含等待 session
+     */
+    private final long roundTripNanos;
+
+    /**
+     * 服务端耗时（微秒），即 ResultSet.getLatency()，未拿到结果时为 -1
+     */
+    private final long serverLatencyMicros;
+
+    /**
+     * 返回行数
+     */
+    private final int rows;
+
+    private final boolean succeeded;
+
+    /**
+     * 失败原因，成功时为 null
+     */
+    private final String errorMessage;
+}
@@ -0,0 +1,14 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+/**
+ * 语句执行监听，可用于对接 Micrometer 等指标系统
+ * 在执行线程中同步回调，实现需足够轻量且线程安全
+ *
+ * @see QueryMetrics
+ * @see SlowQueryLogger
+ */
+@FunctionalInterface
+public interface QueryListener {
+
+    void onQuery(QueryEvent event);
+}
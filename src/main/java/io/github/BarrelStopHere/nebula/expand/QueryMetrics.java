@@ -0,0 +1,64 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内置的按 space 汇总的执行计数：次数、错误数、行数，
+ * 以及等待 session、客户端往返、服务端三段耗时的累计值与最大值
+ */
+public class QueryMetrics implements QueryListener {
+
+    private final Map<String, SpaceMetrics> spaces = new ConcurrentHashMap<>();
+
+    @Override
+    public void onQuery(QueryEvent event) {
+        SpaceMetrics metrics = spaces.computeIfAbsent(event.getSpace(), s -> new SpaceMetrics());
+        metrics.queries.increment();
+        if (!event.isSucceeded()) {
+            metrics.errors.increment();
+        }
+        metrics.rows.add(event.getRows());
+        metrics.acquireTotal.add(event.getAcquireNanos());
+        metrics.acquireMax.accumulate(event.getAcquireNanos());
+        metrics.roundTripTotal.add(event.getRoundTripNanos());
+        metrics.roundTripMax.accumulate(event.getRoundTripNanos());
+        if (event.getServerLatencyMicros() >= 0) {
+            metrics.serverTotal.add(event.getServerLatencyMicros());
+            metrics.serverMax.accumulate(event.getServerLatencyMicros());
+        }
+    }
+
+    public SpaceQueryStats getStats(String space) {
+        SpaceMetrics metrics = spaces.get(space);
+        return metrics == null ? new SpaceQueryStats(0, 0, 0, 0, 0, 0, 0, 0, 0) : metrics.snapshot();
+    }
+
+    public Map<String, SpaceQueryStats> getAllStats() {
+        Map<String, SpaceQueryStats> stats = new HashMap<>();
+        spaces.forEach((space, metrics) -> stats.put(space, metrics.snapshot()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static final class SpaceMetrics {
+        private final LongAdder queries = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder acquireTotal = new LongAdder();
+        private final LongAccumulator acquireMax = new LongAccumulator(Math::max, 0);
+        private final LongAdder roundTripTotal = new LongAdder();
+        private final LongAccumulator roundTripMax = new LongAccumulator(Math::max, 0);
+        private final LongAdder serverTotal = new LongAdder();
+        private final LongAccumulator serverMax = new LongAccumulator(Math::max, 0);
+
+        SpaceQueryStats snapshot() {
+            return new SpaceQueryStats(queries.sum(), errors.sum(), rows.sum(),
+                    acquireTotal.sum(), acquireMax.get(), roundTripTotal.sum(), roundTripMax.get(),
+                    serverTotal.sum(), serverMax.get());
+        }
+    }
+}
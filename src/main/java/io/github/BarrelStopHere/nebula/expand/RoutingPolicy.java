@@ -0,0 +1,18 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+/**
+ * 多个 graphd 之间的路由策略
+ */
+public enum RoutingPolicy {
+
+    /**
+     * 选择当前借出 session 最少的节点
+     */
+    LEAST_OUTSTANDING,
+
+    /**
+     * 按 (借出数 + 1) * 指数加权平均耗时 选择，慢节点自动分到更少请求；
+     * 耗时取语句往返时间，长时间无样本时按半衰期衰减
+     */
+    EWMA
+}
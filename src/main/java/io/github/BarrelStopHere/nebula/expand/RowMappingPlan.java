@@ -0,0 +1,251 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import io.github.BarrelStopHere.nebula.annotation.NebulaIgnore;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行映射计划
+ * 按 (实体类, 列名列表) 缓存，列下标到字段 setter 的对应关系只解析一次，
+ * 列名（去掉 "变量." 前缀）与字段名相同时直接对应，否则按下划线转驼峰后的名称查找；
+ * 映射每一行时不再有反射查找、正则和字符串处理；
+ * 每列的解码方式按字段类型预先选定，见 {@link ValueDecoders}；
+ * 实体有编译期生成的 {@link EntityMapper} 时直接通过映射类实例化和写字段。
+ * final 字段同样写入：MethodHandle 不能写 final 字段，这些字段通过已 setAccessible 的 Field 写入；
+ * 映射类不写 final 字段，对应的列同样通过 Field 写入。
+ * 计划缓存按最近使用淘汰，超出上限时只丢弃最久未用的计划
+ */
+public final class RowMappingPlan<T> {
+
+    private static final int MAX_CACHED_PLANS = 1024;
+    // 按访问顺序排列，只在持有自身锁时访问
+    private static final Map<PlanKey, RowMappingPlan<?>> PLAN_CACHE =
+            new LinkedHashMap<PlanKey, RowMappingPlan<?>>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PlanKey, RowMappingPlan<?>> eldest) {
+                    return size() > MAX_CACHED_PLANS;
+                }
+            };
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final Class<T> clazz;
+    private final EntityMapper<T> mapper;
+    // 下标与结果集列一一对应，未映射的列为 -1
+    private final int[] mapperIndexes;
+    private final MethodHandle constructor;
+    // 下标与结果集列一一对应，未映射的列为 null；有映射类时只含映射类不写的 final 字段
+    private final ValueDecoders.FieldBinder[] binders;
+    private final Field[] fields;
+
+    private RowMappingPlan(Class<T> clazz, List<String> columns) {
+        this.clazz = clazz;
+        this.mapper = EntityMappers.of(clazz);
+        int size = columns.size();
+        this.binders = new ValueDecoders.FieldBinder[size];
+        this.fields = new Field[size];
+        // 预处理字段映射关系（排除被 @NebulaIgnore 标记的字段）
+        Map<String, Field> fieldMap = new HashMap<>();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!field.isAnnotationPresent(NebulaIgnore.class) && !Modifier.isStatic(field.getModifiers())) {
+                fieldMap.put(field.getName(), field); // 保留原始字段名
+            }
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        if (mapper != null) {
+            this.mapperIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                String name = columnName(columns.get(i));
+                int index = mapper.fieldIndex(name);
+                mapperIndexes[i] = index >= 0 ? index : mapper.fieldIndex(toCamelCase(name));
+                Field field = field(fieldMap, name);
+                if (mapperIndexes[i] < 0 && field != null && Modifier.isFinal(field.getModifiers())) {
+                    bind(i, field, lookup);
+                }
+            }
+            this.constructor = null;
+            return;
+        }
+        this.mapperIndexes = null;
+        try {
+            Constructor<T> ctor = clazz.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE);
+        } catch (Exception e) {
+            throw new NebulaException("无法实例化对象: " + clazz.getName());
+        }
+
+        for (int i = 0; i < size; i++) {
+            Field field = field(fieldMap, columnName(columns.get(i)));
+            if (field != null) {
+                bind(i, field, lookup);
+            }
+        }
+    }
+
+    /**
+     * 列名去掉 "变量." 前缀
+     */
+    private static String columnName(String colName) {
+        return colName.substring(colName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * 先按原名查找字段，找不到时按驼峰名查找
+     */
+    private static Field field(Map<String, Field> fieldMap, String name) {
+        Field field = fieldMap.get(name);
+        return field != null ? field : fieldMap.get(toCamelCase(name));
+    }
+
+    private void bind(int column, Field field, MethodHandles.Lookup lookup) {
+        try {
+            field.setAccessible(true);
+            binders[column] = ValueDecoders.binder(field, lookup);
+            fields[column] = field;
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new NebulaException("设置字段[" + field.getName() + "]值失败: " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> RowMappingPlan<T> of(Class<T> clazz, List<String> columns) {
+        RowMappingPlan<?> plan;
+        synchronized (PLAN_CACHE) {
+            plan = PLAN_CACHE.get(new PlanKey(clazz, columns));
+        }
+        if (plan != null) {
+            return (RowMappingPlan<T>) plan;
+        }
+        // 在锁外构建，并发构建同一计划时保留先放入的
+        List<String> copy = new ArrayList<>(columns);
+        RowMappingPlan<T> created = new RowMappingPlan<>(clazz, copy);
+        synchronized (PLAN_CACHE) {
+            plan = PLAN_CACHE.putIfAbsent(new PlanKey(clazz, copy), created);
+        }
+        return plan != null ? (RowMappingPlan<T>) plan : created;
+    }
+
+    public T map(Row row) {
+        if (mapper != null) {
+            return mapWithMapper(row);
+        }
+        T instance;
+        try {
+            Object obj = constructor.invokeExact();
+            instance = clazz.cast(obj);
+        } catch (Throwable e) {
+            throw new NebulaException("无法实例化对象: " + clazz.getName());
+        }
+
+        bindAll(instance, row.getValues());
+        return instance;
+    }
+
+    private void bindAll(T instance, List<Value> values) {
+        for (int i = 0; i < binders.length; i++) {
+            ValueDecoders.FieldBinder binder = binders[i];
+            if (binder == null) {
+                continue;
+            }
+            try {
+                binder.bind(instance, values.get(i));
+            } catch (NebulaException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new NebulaException("设置字段[" + fields[i].getName() + "]值失败");
+            }
+        }
+    }
+
+    private T mapWithMapper(Row row) {
+        T instance = mapper.newInstance();
+        List<Value> values = row.getValues();
+        for (int i = 0; i < mapperIndexes.length; i++) {
+            if (mapperIndexes[i] < 0) {
+                continue;
+            }
+            try {
+                mapper.set(instance, mapperIndexes[i], values.get(i));
+            } catch (NebulaException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new NebulaException("设置第" + i + "列的值失败: " + e.getMessage());
+            }
+        }
+        bindAll(instance, values);
+        return instance;
+    }
+
+    public List<T> mapAll(List<Row> rows) {
+        List<T> result = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            result.add(map(row));
+        }
+        return result;
+    }
+
+    static String toCamelCase(String s) {
+        if (s == null || s.isEmpty()) {
+            return s;
+        }
+        s = s.toLowerCase().replaceAll("_{2,}", "_"); // 处理连续下划线
+        StringBuilder sb = new StringBuilder();
+        boolean nextUpperCase = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '_') {
+                nextUpperCase = true;
+            } else {
+                if (nextUpperCase) {
+                    sb.append(Character.toUpperCase(c));
+                    nextUpperCase = false;
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class PlanKey {
+        private final Class<?> clazz;
+        private final List<String> columns;
+        private final int hash;
+
+        PlanKey(Class<?> clazz, List<String> columns) {
+            this.clazz = clazz;
+            this.columns = columns;
+            this.hash = 31 * clazz.hashCode() + columns.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+            PlanKey other = (PlanKey) o;
+            return clazz == other.clazz && columns.equals(other.columns);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.client.graph.NebulaPoolConfig;
+import com.vesoft.nebula.client.graph.data.HostAddress;
+import com.vesoft.nebula.client.graph.net.NebulaPool;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个 space 共享的连接池
+ * 每个 graphd 只建一个 NebulaPool，session 总数受全局上限约束；
+ * 各 space 可预留一部分名额，预留之外的名额按需争用。
+ * 共享名额耗尽时，借用方可接管其他 space 预留之外的空闲 session，切换 space 后使用
+ */
+@Slf4j
+public class SharedSessionPool {
+
+    private final NebulaPoolConfig poolConfig;
+    private final int maxTotal;
+    private final Semaphore permits;
+    private final Map<String, NebulaPool> pools = new ConcurrentHashMap<>();
+    private final List<ExpandSessionManager> members = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param poolConfig 每个 graphd 的连接池配置，maxConnSize 即单个节点的连接上限
+     * @param maxTotal   所有 space 的 session 总数上限
+     */
+    public SharedSessionPool(NebulaPoolConfig poolConfig, int maxTotal) {
+        if (maxTotal <= 0) {
+            throw new RuntimeException("Shared pool size must be positive");
+        }
+        this.poolConfig = poolConfig;
+        this.maxTotal = maxTotal;
+        this.permits = new Semaphore(maxTotal);
+    }
+
+    synchronized NebulaPool ensurePool(HostAddress address) {
+        String key = address.getHost() + ":" + address.getPort();
+        NebulaPool pool = pools.get(key);
+        if (pool == null) {
+            pool = HostPool.createPool(address, poolConfig);
+            if (pool != null) {
+                pools.put(key, pool);
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 为 space 预留名额，预留的名额不再参与争用
+     */
+    void reserve(int count) {
+        if (count > 0 && !permits.tryAcquire(count)) {
+            throw new RuntimeException("Reserved sessions exceed the shared pool size " + maxTotal);
+        }
+    }
+
+    void unreserve(int count) {
+        if (count > 0) {
+            permits.release(count);
+        }
+    }
+
+    boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return permits.tryAcquire(timeout, unit);
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    void register(ExpandSessionManager manager) {
+        members.add(manager);
+    }
+
+    void unregister(ExpandSessionManager manager) {
+        members.remove(manager);
+    }
+
+    /**
+     * 从其他 space 取出一个预留之外的空闲 session，其占用的共享名额随之转移
+     *
+     * @return 没有可接管的 session 时返回 null
+     */
+    ExpandSessionWrapper detachIdle(ExpandSessionManager requester) {
+        for (ExpandSessionManager member : members) {
+            if (member != requester) {
+                ExpandSessionWrapper session = member.detachIdle();
+                if (session != null) {
+                    return session;
+                }
+            }
+        }
+        return null;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * 当前未被占用也未被预留的名额
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    public void close() {
+        pools.values().forEach(NebulaPool::close);
+        pools.clear();
+    }
+}
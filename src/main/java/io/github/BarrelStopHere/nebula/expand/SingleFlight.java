@@ -0,0 +1,122 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 并发相同查询合并
+ * 以 (space, nGql, 实体类) 为键，同一时刻只有一个线程真正执行，其余线程等待并共享映射后的结果；
+ * 执行结束即移除，之后的请求重新执行，不缓存结果。
+ * 执行结束后以不可变快照完成共享结果，执行方和每个等待方各自得到快照的一份副本，
+ * 可以修改列表本身而互不影响；列表中的实体在调用方之间共享，调用方不应修改
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Key, CompletableFuture<List<?>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> execute(String space, String nGql, Class<T> clazz, Supplier<List<T>> loader) {
+        Key key = new Key(space, nGql, clazz);
+        CompletableFuture<List<?>> future = new CompletableFuture<>();
+        CompletableFuture<List<?>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return copy((List<T>) await(existing));
+        }
+        executions.increment();
+        List<T> result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        // 先快照再通知：执行方返回后对列表的修改不会被等待方看到
+        List<T> snapshot = result == null ? null : Collections.unmodifiableList(new ArrayList<>(result));
+        // 先移除再通知，之后到达的请求不会拿到已结束的结果
+        inFlight.remove(key, future);
+        future.complete(snapshot);
+        return copy(snapshot);
+    }
+
+    private static <T> List<T> copy(List<T> snapshot) {
+        return snapshot == null ? null : new ArrayList<>(snapshot);
+    }
+
+    /**
+     * 实际执行的次数
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * 合并到其他线程执行结果上的次数
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private static List<?> await(CompletableFuture<List<?>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NebulaException("等待合并查询结果时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new NebulaException("合并查询失败: " + cause.getMessage());
+        }
+    }
+
+    private static final class Key {
+        private final String space;
+        private final String nGql;
+        private final Class<?> clazz;
+        private final int hash;
+
+        Key(String space, String nGql, Class<?> clazz) {
+            this.space = space;
+            this.nGql = nGql;
+            this.clazz = clazz;
+            this.hash = Objects.hash(space, nGql, clazz);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return clazz == other.clazz && space.equals(other.space) && nGql.equals(other.nGql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢查询日志
+ * 只记录耗时（等待 session + 往返）超过阈值的语句，按采样率抽样，语句超长时截断
+ */
+@Slf4j
+public class SlowQueryLogger implements QueryListener {
+
+    private volatile long thresholdMillis = 1000;
+    private volatile double sampleRate = 1.0;
+    private volatile int maxLength = 512;
+
+    @Override
+    public void onQuery(QueryEvent event) {
+        long totalNanos = event.getAcquireNanos() + event.getRoundTripNanos();
+        if (totalNanos < TimeUnit.MILLISECONDS.toNanos(thresholdMillis)) {
+            return;
+        }
+        double rate = sampleRate;
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        log.warn("慢查询 space:{} 耗时:{}ms 等待session:{}ms 服务端:{}us 行数:{} nGql:{}",
+                event.getSpace(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                TimeUnit.NANOSECONDS.toMillis(event.getAcquireNanos()),
+                event.getServerLatencyMicros(),
+                event.getRows(),
+                truncate(event.getNGql()));
+    }
+
+    private String truncate(String nGql) {
+        int max = maxLength;
+        if (nGql == null || nGql.length() <= max) {
+            return nGql;
+        }
+        return nGql.substring(0, max) + "...(共" + nGql.length() + "字符)";
+    }
+
+    /**
+     * 慢查询阈值（毫秒）
+     */
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    /**
+     * 采样率，0~1
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 日志中语句的最大长度
+     */
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+}
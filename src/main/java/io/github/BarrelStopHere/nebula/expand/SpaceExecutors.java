@@ -0,0 +1,82 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 按 space 划分的异步执行线程池
+ * 默认线程数与该 space 的 session 上限一致，队列有界，队列满时返回失败的 future；
+ * 可通过 {@link Factory} 替换为其他实现（如新版 JDK 的虚拟线程）
+ */
+@Slf4j
+public class SpaceExecutors {
+
+    /**
+     * 为 space 创建执行器
+     */
+    @FunctionalInterface
+    public interface Factory {
+        /**
+         * @param space       space 名称
+         * @param maxSessions 该 space 的 session 上限
+         */
+        ExecutorService create(String space, int maxSessions);
+    }
+
+    private static final int QUEUE_FACTOR = 16;
+
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+    private volatile Factory factory = SpaceExecutors::defaultExecutor;
+
+    public <T> CompletableFuture<T> supply(String space, int maxSessions, Supplier<T> supplier) {
+        ExecutorService executor = executors.computeIfAbsent(space, s -> factory.create(s, maxSessions));
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new NebulaException("space[" + space + "]异步任务队列已满"));
+            return future;
+        }
+    }
+
+    /**
+     * 替换执行器工厂，已创建的执行器会被关闭并在下次使用时按新工厂重建
+     */
+    public void setFactory(Factory factory) {
+        this.factory = factory;
+        shutdown();
+    }
+
+    public void shutdown() {
+        for (String space : executors.keySet()) {
+            ExecutorService executor = executors.remove(space);
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static ExecutorService defaultExecutor(String space, int maxSessions) {
+        int threads = Math.max(maxSessions, 1);
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_FACTOR), r -> {
+            Thread thread = new Thread(r, "nebula-async-" + space + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        log.info("创建 space[{}] 异步执行线程池，线程数：{}", space, threads);
+        return executor;
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 单个 space 的语句执行计数快照，耗时单位均为纳秒（服务端耗时为微秒）
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SpaceQueryStats {
+
+    private final long queries;
+
+    private final long errors;
+
+    private final long rows;
+
+    private final long acquireTotalNanos;
+
+    private final long acquireMaxNanos;
+
+    private final long roundTripTotalNanos;
+
+    private final long roundTripMaxNanos;
+
+    private final long serverLatencyTotalMicros;
+
+    private final long serverLatencyMaxMicros;
+}
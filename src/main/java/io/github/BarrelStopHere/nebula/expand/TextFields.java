@@ -0,0 +1,123 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import io.github.BarrelStopHere.nebula.annotation.NebulaIgnore;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文本导入导出时的字段读写
+ * 按字段名查找实体字段，把文本或 JSON 中的原始值转换为字段类型后写入；导出时按声明顺序读取
+ */
+final class TextFields<T> {
+
+    private final Class<T> clazz;
+    private final Constructor<T> constructor;
+    private final Map<String, Field> fields = new HashMap<>();
+    private final List<Field> ordered = new ArrayList<>();
+
+    TextFields(Class<T> clazz) {
+        this.clazz = clazz;
+        try {
+            this.constructor = clazz.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new NebulaException(clazz.getName() + " 缺少无参构造方法");
+        }
+        for (Field field : clazz.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(NebulaIgnore.class)) {
+                continue;
+            }
+            field.setAccessible(true);
+            fields.put(field.getName(), field);
+            ordered.add(field);
+        }
+    }
+
+    /**
+     * 全部字段，按声明顺序
+     */
+    List<Field> fields() {
+        return ordered;
+    }
+
+    /**
+     * 查找字段，不存在时返回 null
+     */
+    Field field(String name) {
+        return fields.get(name);
+    }
+
+    T newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new NebulaException("创建 " + clazz.getName() + " 实例失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 写入字段，raw 为 String、Number、Boolean 或 null
+     */
+    static void set(Object entity, Field field, Object raw) {
+        try {
+            Class<?> type = field.getType();
+            if (raw == null) {
+                if (!type.isPrimitive()) {
+                    field.set(entity, null);
+                }
+                return;
+            }
+            field.set(entity, convert(raw, type));
+        } catch (IllegalAccessException e) {
+            throw new NebulaException("写入字段[" + field.getName() + "]失败");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(Object raw, Class<?> type) {
+        if (type.isInstance(raw)) {
+            return raw;
+        }
+        String text = raw.toString();
+        if (type == String.class) {
+            return text;
+        }
+        if (type == int.class || type == Integer.class) {
+            return raw instanceof Number ? ((Number) raw).intValue() : Integer.parseInt(text.trim());
+        }
+        if (type == long.class || type == Long.class) {
+            return raw instanceof Number ? ((Number) raw).longValue() : Long.parseLong(text.trim());
+        }
+        if (type == double.class || type == Double.class) {
+            return raw instanceof Number ? ((Number) raw).doubleValue() : Double.parseDouble(text.trim());
+        }
+        if (type == float.class || type == Float.class) {
+            return raw instanceof Number ? ((Number) raw).floatValue() : Float.parseFloat(text.trim());
+        }
+        if (type == short.class || type == Short.class) {
+            return raw instanceof Number ? ((Number) raw).shortValue() : Short.parseShort(text.trim());
+        }
+        if (type == byte.class || type == Byte.class) {
+            return raw instanceof Number ? ((Number) raw).byteValue() : Byte.parseByte(text.trim());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.parseBoolean(text.trim());
+        }
+        if (type == char.class || type == Character.class) {
+            if (text.length() != 1) {
+                throw new IllegalArgumentException("无法转换为字符: " + text);
+            }
+            return text.charAt(0);
+        }
+        if (type.isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, text.trim());
+        }
+        throw new IllegalArgumentException("不支持的字段类型: " + type.getName());
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import io.github.BarrelStopHere.nebula.annotation.EdgeFrom;
+import io.github.BarrelStopHere.nebula.annotation.EdgeRank;
+import io.github.BarrelStopHere.nebula.annotation.EdgeTo;
+import io.github.BarrelStopHere.nebula.annotation.NebulaIgnore;
+import io.github.BarrelStopHere.nebula.annotation.Vid;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 部分更新语句构建
+ * 每个实体生成一条 UPDATE/UPSERT，只 SET 指定的属性，多条语句以 ';' 合并后按行数和字节数切分；
+ * 字段元数据与插入一致：优先使用编译期生成的映射类，否则反射
+ */
+public class UpdateConvert<T> extends AbstractConvert {
+
+    private final EntityMapper<T> mapper;
+    private final String[] propNames;
+    private final Map<String, Integer> propIndexes;
+    private Field vidField;
+    private Field fromField;
+    private Field toField;
+    private Field rankField;
+
+    public UpdateConvert(Class<T> clazz) {
+        this.mapper = EntityMappers.of(clazz);
+        if (mapper == null) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                if (field.isAnnotationPresent(Vid.class)) {
+                    vidField = field;
+                } else if (field.isAnnotationPresent(EdgeFrom.class)) {
+                    fromField = field;
+                } else if (field.isAnnotationPresent(EdgeTo.class)) {
+                    toField = field;
+                } else if (field.isAnnotationPresent(EdgeRank.class)) {
+                    rankField = field;
+                } else if (!field.isAnnotationPresent(NebulaIgnore.class)) {
+                    fieldList.add(field);
+                }
+            }
+            this.propNames = new String[fieldList.size()];
+            for (int i = 0; i < propNames.length; i++) {
+                propNames[i] = fieldList.get(i).getName();
+            }
+        } else {
+            this.propNames = mapper.propNames();
+        }
+        this.propIndexes = new HashMap<>((int) (propNames.length / 0.75f) + 1);
+        for (int i = 0; i < propNames.length; i++) {
+            propIndexes.put(propNames[i], i);
+        }
+    }
+
+    public String[] getPropNames() {
+        return propNames.clone();
+    }
+
+    /**
+     * 属性下标，不存在时抛出异常
+     */
+    public int propIndex(String propName) {
+        Integer index = propIndexes.get(propName);
+        if (index == null) {
+            throw new IllegalArgumentException("未知的属性: " + propName);
+        }
+        return index;
+    }
+
+    public Object prop(T entity, int index) {
+        return mapper != null ? mapper.prop(entity, index) : readField(fieldList.get(index), entity);
+    }
+
+    /**
+     * 读取全部属性值，顺序与 {@link #getPropNames()} 一致
+     */
+    public Object[] props(T entity) {
+        Object[] values = new Object[propNames.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = prop(entity, i);
+        }
+        return values;
+    }
+
+    /**
+     * 构建顶点更新语句
+     *
+     * @param verb  UPDATE 或 UPSERT
+     * @param dirty 每个实体需要写入的属性名，为空的实体跳过
+     */
+    public List<BatchStatement> buildVertex(String verb, String tagName, List<T> entities,
+                                            Function<T, ? extends Collection<String>> dirty,
+                                            int maxRows, int maxBytes) {
+        if (mapper != null ? !mapper.isVertex() : vidField == null) {
+            throw new IllegalArgumentException("顶点必须包含@Id注解的ID字段");
+        }
+        String prefix = verb + " VERTEX ON " + tagName + " ";
+        return NGqlEncoder.encode("", ';', entities, (entity, sb) -> {
+            Collection<String> props = dirty.apply(entity);
+            if (props == null || props.isEmpty()) {
+                return false;
+            }
+            Object id = mapper != null ? mapper.vid(entity) : readField(vidField, entity);
+            if (id == null) {
+                throw new IllegalArgumentException("顶点ID字段不能为空");
+            }
+            sb.append(prefix).append(id);
+            appendSet(entity, props, sb);
+            return true;
+        }, maxRows, maxBytes);
+    }
+
+    /**
+     * 构建边更新语句，参数同 {@link #buildVertex}
+     */
+    public List<BatchStatement> buildEdge(String verb, String edgeName, List<T> entities,
+                                          Function<T, ? extends Collection<String>> dirty,
+                                          int maxRows, int maxBytes) {
+        if (mapper != null ? !mapper.isEdge() : fromField == null || toField == null) {
+            throw new IllegalArgumentException("边必须包含起点（@EdgeFrom）和终点（@EdgeTo）字段");
+        }
+        boolean ranked = mapper != null ? mapper.hasRank() : rankField != null;
+        String prefix = verb + " EDGE ON " + edgeName + " ";
+        return NGqlEncoder.encode("", ';', entities, (entity, sb) -> {
+            Collection<String> props = dirty.apply(entity);
+            if (props == null || props.isEmpty()) {
+                return false;
+            }
+            Object from = mapper != null ? mapper.from(entity) : readField(fromField, entity);
+            Object to = mapper != null ? mapper.to(entity) : readField(toField, entity);
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("边起点或终点字段为空");
+            }
+            sb.append(prefix).append(from).append("->").append(to);
+            if (ranked) {
+                sb.append("@").append(mapper != null ? mapper.rank(entity) : readField(rankField, entity));
+            }
+            appendSet(entity, props, sb);
+            return true;
+        }, maxRows, maxBytes);
+    }
+
+    private void appendSet(T entity, Collection<String> props, StringBuilder sb) {
+        sb.append(" SET ");
+        boolean first = true;
+        for (String propName : props) {
+            int index = propIndex(propName);
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(propName).append(" = ");
+            Object value = prop(entity, index);
+            if (value instanceof String) {
+                NGqlEncoder.appendString(sb, (String) value);
+            } else {
+                NGqlEncoder.appendValue(sb, value);
+            }
+        }
+    }
+
+    @Override
+    protected void childCloseField() {
+    }
+}
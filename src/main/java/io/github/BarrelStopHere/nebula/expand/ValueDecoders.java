@@ -0,0 +1,390 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Date;
+import com.vesoft.nebula.DateTime;
+import com.vesoft.nebula.NMap;
+import com.vesoft.nebula.Time;
+import com.vesoft.nebula.Value;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Value 解码
+ * 按目标字段类型一次性选好解码函数，直接从 Thrift 的 Value 联合体转换为目标类型，
+ * 不经过中间字符串；基本类型字段通过专用 setter 写入，不装箱
+ */
+public final class ValueDecoders {
+
+    private static final int TABLE_SIZE = Value.DUVAL + 1;
+
+    /**
+     * 兼容旧行为的解码表：复杂类型转为 toString() 字符串，用于 String 字段
+     */
+    private static final Function<Value, Object>[] LEGACY_TABLE = legacyTable();
+
+    /**
+     * 按 Value 自身类型解码为最自然的 Java 类型，用于 Object 字段和集合元素
+     */
+    private static final Function<Value, Object>[] NATURAL_TABLE = naturalTable();
+
+    private ValueDecoders() {
+    }
+
+    /**
+     * 字段绑定：把一个 Value 写入目标对象的字段
+     */
+    public interface FieldBinder {
+        void bind(Object target, Value value) throws Throwable;
+    }
+
+    public static Object decodeLegacy(Value value) {
+        return dispatch(LEGACY_TABLE, value);
+    }
+
+    public static Object decodeNatural(Value value) {
+        return dispatch(NATURAL_TABLE, value);
+    }
+
+    private static Object dispatch(Function<Value, Object>[] table, Value value) {
+        int fieldType = value.getSetField();
+        if (fieldType <= 0 || fieldType >= TABLE_SIZE) {
+            return "未知类型";
+        }
+        return table[fieldType].apply(value);
+    }
+
+    /**
+     * 为字段构建绑定，基本类型走不装箱的专用 setter；
+     * final 字段不能通过 MethodHandle 写入，调用方须已对字段 setAccessible，改用 Field.set
+     */
+    public static FieldBinder binder(Field field, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (Modifier.isFinal(field.getModifiers())) {
+            Function<Value, Object> decoder = decoder(type, field.getGenericType());
+            boolean primitive = type.isPrimitive();
+            return (target, value) -> {
+                if (!primitive || !isNull(value)) {
+                    field.set(target, decoder.apply(value));
+                }
+            };
+        }
+        MethodHandle setter = lookup.unreflectSetter(field);
+        if (type == long.class) {
+            MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+            return (target, value) -> {
+                if (!isNull(value)) {
+                    mh.invokeExact(target, toLong(value));
+                }
+            };
+        }
+        if (type == int.class) {
+            MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+            return (target, value) -> {
+                if (!isNull(value)) {
+                    mh.invokeExact(target, (int) toLong(value));
+                }
+            };
+        }
+        if (type == double.class) {
+            MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+            return (target, value) -> {
+                if (!isNull(value)) {
+                    mh.invokeExact(target, toDouble(value));
+                }
+            };
+        }
+        if (type == float.class) {
+            MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, float.class));
+            return (target, value) -> {
+                if (!isNull(value)) {
+                    mh.invokeExact(target, (float) toDouble(value));
+                }
+            };
+        }
+        if (type == boolean.class) {
+            MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+            return (target, value) -> {
+                if (!isNull(value)) {
+                    mh.invokeExact(target, toBoolean(value));
+                }
+            };
+        }
+        if (type.isPrimitive()) {
+            // short/byte/char 使用较少，装箱后交给 MethodHandle 拆箱
+            Function<Value, Object> decoder = decoder(type, field.getGenericType());
+            MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                if (!isNull(value)) {
+                    mh.invokeExact(target, decoder.apply(value));
+                }
+            };
+        }
+        Function<Value, Object> decoder = decoder(type, field.getGenericType());
+        MethodHandle mh = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (target, value) -> {
+            mh.invokeExact(target, decoder.apply(value));
+        };
+    }
+
+    /**
+     * 按目标类型选择解码函数，NULL 统一解码为 null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Function<Value, Object> decoder(Class<?> type, Type genericType) {
+        if (type == String.class) {
+            return ValueDecoders::decodeLegacy;
+        }
+        if (type == Object.class) {
+            return ValueDecoders::decodeNatural;
+        }
+        Function<Value, Object> decoder;
+        if (type == Long.class || type == long.class) {
+            decoder = ValueDecoders::toLong;
+        } else if (type == Integer.class || type == int.class) {
+            decoder = v -> (int) toLong(v);
+        } else if (type == Short.class || type == short.class) {
+            decoder = v -> (short) toLong(v);
+        } else if (type == Byte.class || type == byte.class) {
+            decoder = v -> (byte) toLong(v);
+        } else if (type == Double.class || type == double.class) {
+            decoder = ValueDecoders::toDouble;
+        } else if (type == Float.class || type == float.class) {
+            decoder = v -> (float) toDouble(v);
+        } else if (type == Boolean.class || type == boolean.class) {
+            decoder = ValueDecoders::toBoolean;
+        } else if (type == byte[].class) {
+            decoder = v -> v.getSVal();
+        } else if (type == LocalDate.class) {
+            decoder = ValueDecoders::toLocalDate;
+        } else if (type == LocalDateTime.class) {
+            decoder = ValueDecoders::toLocalDateTime;
+        } else if (type == LocalTime.class) {
+            decoder = v -> toLocalTime(v.getTVal());
+        } else if (type == java.time.Duration.class) {
+            decoder = ValueDecoders::toDuration;
+        } else if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            decoder = v -> Enum.valueOf(enumType, utf8(v.getSVal()));
+        } else if (Set.class.isAssignableFrom(type)) {
+            Function<Value, Object> element = decoder(typeArgument(genericType, 0));
+            decoder = v -> toSet(v, element);
+        } else if (Collection.class.isAssignableFrom(type)) {
+            Function<Value, Object> element = decoder(typeArgument(genericType, 0));
+            decoder = v -> toList(v, element);
+        } else if (Map.class.isAssignableFrom(type)) {
+            Function<Value, Object> element = decoder(typeArgument(genericType, 1));
+            decoder = v -> toMap(v.getMVal(), element);
+        } else {
+            return ValueDecoders::decodeLegacy;
+        }
+        Function<Value, Object> typed = decoder;
+        return v -> isNull(v) ? null : typed.apply(v);
+    }
+
+    /**
+     * 按字段声明的泛型类型选择解码函数，供生成的映射类初始化带类型参数的字段
+     */
+    public static Function<Value, Object> fieldDecoder(Class<?> owner, String fieldName) {
+        try {
+            Field field = owner.getDeclaredField(fieldName);
+            return decoder(field.getType(), field.getGenericType());
+        } catch (NoSuchFieldException e) {
+            throw new NebulaException("字段[" + fieldName + "]不存在: " + owner.getName());
+        }
+    }
+
+    private static Function<Value, Object> decoder(Type type) {
+        if (type instanceof Class) {
+            return decoder((Class<?>) type, type);
+        }
+        if (type instanceof ParameterizedType) {
+            return decoder((Class<?>) ((ParameterizedType) type).getRawType(), type);
+        }
+        return ValueDecoders::decodeNatural;
+    }
+
+    private static Type typeArgument(Type genericType, int index) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] args = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (index < args.length) {
+                return args[index];
+            }
+        }
+        return Object.class;
+    }
+
+    public static boolean isNull(Value value) {
+        return value.getSetField() == Value.NVAL;
+    }
+
+    public static long toLong(Value value) {
+        switch (value.getSetField()) {
+            case Value.IVAL:
+                return value.getIVal();
+            case Value.FVAL:
+                return (long) value.getFVal();
+            case Value.BVAL:
+                return value.isBVal() ? 1L : 0L;
+            case Value.SVAL:
+                return Long.parseLong(utf8(value.getSVal()));
+            default:
+                throw mismatch(value, "long");
+        }
+    }
+
+    public static double toDouble(Value value) {
+        switch (value.getSetField()) {
+            case Value.FVAL:
+                return value.getFVal();
+            case Value.IVAL:
+                return value.getIVal();
+            case Value.SVAL:
+                return Double.parseDouble(utf8(value.getSVal()));
+            default:
+                throw mismatch(value, "double");
+        }
+    }
+
+    public static boolean toBoolean(Value value) {
+        switch (value.getSetField()) {
+            case Value.BVAL:
+                return value.isBVal();
+            case Value.IVAL:
+                return value.getIVal() != 0;
+            case Value.SVAL:
+                return Boolean.parseBoolean(utf8(value.getSVal()));
+            default:
+                throw mismatch(value, "boolean");
+        }
+    }
+
+    private static LocalDate toLocalDate(Value value) {
+        switch (value.getSetField()) {
+            case Value.DVAL:
+                Date d = value.getDVal();
+                return LocalDate.of(d.getYear(), d.getMonth(), d.getDay());
+            case Value.DTVAL:
+                DateTime dt = value.getDtVal();
+                return LocalDate.of(dt.getYear(), dt.getMonth(), dt.getDay());
+            default:
+                throw mismatch(value, "LocalDate");
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Value value) {
+        switch (value.getSetField()) {
+            case Value.DTVAL:
+                DateTime dt = value.getDtVal();
+                return LocalDateTime.of(dt.getYear(), dt.getMonth(), dt.getDay(),
+                        dt.getHour(), dt.getMinute(), dt.getSec(), dt.getMicrosec() * 1000);
+            case Value.DVAL:
+                return toLocalDate(value).atStartOfDay();
+            default:
+                throw mismatch(value, "LocalDateTime");
+        }
+    }
+
+    private static LocalTime toLocalTime(Time t) {
+        return LocalTime.of(t.getHour(), t.getMinute(), t.getSec(), t.getMicrosec() * 1000);
+    }
+
+    private static java.time.Duration toDuration(Value value) {
+        com.vesoft.nebula.Duration du = value.getDuVal();
+        if (du.getMonths() != 0) {
+            throw new NebulaException("含月份的 Duration 无法转换为 java.time.Duration: " + du);
+        }
+        return java.time.Duration.ofSeconds(du.getSeconds(), du.getMicroseconds() * 1000L);
+    }
+
+    private static List<Object> toList(Value value, Function<Value, Object> element) {
+        Collection<Value> values;
+        switch (value.getSetField()) {
+            case Value.LVAL:
+                values = value.getLVal().getValues();
+                break;
+            case Value.UVAL:
+                values = value.getUVal().getValues();
+                break;
+            default:
+                throw mismatch(value, "List");
+        }
+        List<Object> list = new ArrayList<>(values.size());
+        for (Value v : values) {
+            list.add(element.apply(v));
+        }
+        return list;
+    }
+
+    private static Set<Object> toSet(Value value, Function<Value, Object> element) {
+        return new HashSet<>(toList(value, element));
+    }
+
+    private static Map<String, Object> toMap(NMap nMap, Function<Value, Object> element) {
+        Map<byte[], Value> kvs = nMap.getKvs();
+        Map<String, Object> map = new LinkedHashMap<>((int) (kvs.size() / 0.75f) + 1);
+        for (Map.Entry<byte[], Value> entry : kvs.entrySet()) {
+            map.put(utf8(entry.getKey()), element.apply(entry.getValue()));
+        }
+        return map;
+    }
+
+    private static String utf8(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static NebulaException mismatch(Value value, String target) {
+        return new NebulaException("无法将类型[" + value.getSetField() + "]的值转换为" + target);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Value, Object>[] legacyTable() {
+        Function<Value, Object>[] table = new Function[TABLE_SIZE];
+        table[Value.NVAL] = v -> null;
+        table[Value.BVAL] = Value::isBVal;
+        table[Value.IVAL] = Value::getIVal;
+        table[Value.FVAL] = Value::getFVal;
+        table[Value.SVAL] = v -> utf8(v.getSVal()); // 字节数组转字符串
+        table[Value.DVAL] = v -> v.getDVal().toString();
+        table[Value.TVAL] = v -> v.getTVal().toString();
+        table[Value.DTVAL] = v -> v.getDtVal().toString();
+        table[Value.VVAL] = v -> v.getVVal().toString();
+        table[Value.EVAL] = v -> v.getEVal().toString();
+        table[Value.PVAL] = v -> v.getPVal().toString();
+        table[Value.LVAL] = v -> v.getLVal().toString();
+        table[Value.MVAL] = v -> v.getMVal().toString();
+        table[Value.UVAL] = v -> v.getUVal().toString();
+        table[Value.GVAL] = v -> v.getGVal().toString();
+        table[Value.GGVAL] = v -> v.getGgVal().toString();
+        table[Value.DUVAL] = v -> v.getDuVal().toString();
+        return table;
+    }
+
+    private static Function<Value, Object>[] naturalTable() {
+        Function<Value, Object>[] table = legacyTable().clone();
+        table[Value.DVAL] = ValueDecoders::toLocalDate;
+        table[Value.TVAL] = v -> toLocalTime(v.getTVal());
+        table[Value.DTVAL] = ValueDecoders::toLocalDateTime;
+        table[Value.LVAL] = v -> toList(v, ValueDecoders::decodeNatural);
+        table[Value.UVAL] = v -> toSet(v, ValueDecoders::decodeNatural);
+        table[Value.MVAL] = v -> toMap(v.getMVal(), ValueDecoders::decodeNatural);
+        return table;
+    }
+}
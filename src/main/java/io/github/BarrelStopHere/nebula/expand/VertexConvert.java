@@ -5,13 +5,22 @@ import io.github.BarrelStopHere.nebula.annotation.Vid;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.StringJoiner;
+import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 public class VertexConvert<T> extends AbstractConvert {
 
     private Field vidField;
+    /**
+     * 编译期生成的映射类，存在时不走反射
+     */
+    private EntityMapper<T> mapper;
     private final List<T> entityList;
 
     public VertexConvert(List<T> entityList) {
@@ -21,38 +30,122 @@ public class VertexConvert<T> extends AbstractConvert {
     public String build(String tagName) {
         if (entityList.isEmpty()) return "";
         buildField(entityList.get(0));
-        StringBuilder sb = new StringBuilder();
-        sb.append("INSERT VERTEX ").append(tagName).append("(").append(fieldStr()).append(") VALUES ");
-        StringJoiner valuesSj = new StringJoiner(",");
-        for (T entity : entityList) {
-            String value = buildValue(entity);
-            if (value != null) valuesSj.add(value);
+        try {
+            String header = "INSERT VERTEX " + tagName + "(" + fieldStr() + ") VALUES ";
+            return NGqlEncoder.encodeAll(header, entityList, this::appendValue);
+        } finally {
+            closeField();
+        }
+    }
+
+    /**
+     * 构建按行数和字节数切分后的多条插入语句
+     */
+    public List<BatchStatement> build(String tagName, int maxRows, int maxBytes) {
+        if (entityList.isEmpty()) return Collections.emptyList();
+        buildField(entityList.get(0));
+        try {
+            String header = "INSERT VERTEX " + tagName + "(" + fieldStr() + ") VALUES ";
+            return NGqlEncoder.encode(header, entityList, this::appendValue, maxRows, maxBytes);
+        } finally {
+            closeField();
+        }
+    }
+
+    /**
+     * 构建参数化的批量插入语句，值通过参数传递，不拼接进语句文本
+     */
+    public List<BatchStatement> buildParameterized(String tagName, int maxRows) {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("maxRowsPerStatement 必须大于0");
+        }
+        if (entityList.isEmpty()) return Collections.emptyList();
+        buildField(entityList.get(0));
+        String header = "INSERT VERTEX " + tagName + "(" + fieldStr() + ") VALUES ";
+        // 生成的映射类不填充 fieldList，列数以映射类的属性为准
+        int cols = mapper != null ? mapper.propNames().length : fieldList.size(), size = entityList.size();
+        List<BatchStatement> statements = new ArrayList<>(size / maxRows + 1);
+        try {
+            for (int start = 0; start < size; start += maxRows) {
+                int rows = Math.min(maxRows, size - start);
+                InsertTemplate template = InsertTemplate.of(header, rows, cols, InsertTemplate.RowKey.VERTEX);
+                Map<String, Object> params = new HashMap<>((int) (rows * (cols + 1) / 0.75f) + 1);
+                for (int r = 0; r < rows; r++) {
+                    T entity = entityList.get(start + r);
+                    Object id = mapper != null ? mapper.vid(entity) : vidField.get(entity);
+                    if (id == null) {
+                        throw new IllegalArgumentException("顶点ID字段不能为空");
+                    }
+                    params.put(template.getKeyParams()[r][0], id);
+                    if (mapper != null) {
+                        mapper.putProps(entity, template.getPropParams()[r], params);
+                    } else {
+                        putProps(entity, template.getPropParams()[r], params);
+                    }
+                }
+                statements.add(new BatchStatement(template.getNGql(), rows, params));
+            }
+        } catch (IllegalAccessException e) {
+            throw new NebulaException("构建顶点参数失败: " + e.getMessage());
+        } finally {
+            closeField();
         }
-        sb.append(valuesSj);
-        closeField();
-        return sb.toString();
+        return statements;
     }
 
-    private String buildValue(T entity) {
-        StringBuilder sb = new StringBuilder();
+    /**
+     * 以 @Vid 字段值作为实体键
+     */
+    public static <T> Function<T, Object> keyOf(Class<T> clazz) {
+        EntityMapper<T> entityMapper = EntityMappers.of(clazz);
+        if (entityMapper != null && entityMapper.isVertex()) {
+            return entityMapper::vid;
+        }
+        Field vid = annotatedField(clazz, Vid.class);
+        if (vid == null) {
+            throw new IllegalArgumentException("顶点必须包含@Id注解的ID字段");
+        }
+        return entity -> readField(vid, entity);
+    }
+
+    /**
+     * 把一行 VALUES 直接追加到语句缓冲区
+     */
+    private boolean appendValue(T entity, StringBuilder sb) {
         try {
-            Object id = vidField.get(entity);
+            Object id = mapper != null ? mapper.vid(entity) : vidField.get(entity);
             if (id == null) {
                 throw new IllegalArgumentException("顶点ID字段不能为空");
             }
             sb.append(id).append(":(");
-            appendNGql(entity, sb);
+            if (mapper != null) {
+                mapper.appendProps(entity, sb);
+            } else {
+                appendNGql(entity, sb);
+            }
             sb.append(")");
-            return sb.toString();
+            return true;
         } catch (IllegalAccessException e) {
             log.error("构建顶点值失败: {}", e.getMessage());
-            return null;
+            return false;
         }
     }
 
+    @SuppressWarnings("unchecked")
     private void buildField(T entity) {
+        fieldList.clear();
+        mapper = EntityMappers.of((Class<T>) entity.getClass());
+        if (mapper != null) {
+            if (!mapper.isVertex()) {
+                throw new IllegalArgumentException("顶点必须包含@Id注解的ID字段");
+            }
+            return;
+        }
         Field[] fields = entity.getClass().getDeclaredFields();
         for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
             field.setAccessible(true);
             if (field.isAnnotationPresent(Vid.class)) {
                 vidField = field;
@@ -67,8 +160,15 @@ public class VertexConvert<T> extends AbstractConvert {
         }
     }
 
+    @Override
+    protected String fieldStr() {
+        return mapper != null ? String.join(",", mapper.propNames()) : super.fieldStr();
+    }
+
     @Override
     protected void childCloseField() {
-        vidField.setAccessible(false);
+        if (mapper == null) {
+            vidField.setAccessible(false);
+        }
     }
 }
\ No newline at end of file
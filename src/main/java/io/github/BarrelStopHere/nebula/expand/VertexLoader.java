@@ -0,0 +1,290 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 按 VID 合并查询
+ * 多个线程的单个 VID 查询在一个短窗口内（或攒够一批）合并为一次批量 FETCH，
+ * 返回后按实体的 @Vid 字段把结果分发给各自的 future，未查到的 VID 得到 null；
+ * 同一窗口内重复的 VID 只查询一次。
+ * VID 按原样拼接进语句，比较时把带双引号的字符串 VID 还原为原始字符串（去掉引号并反转义），
+ * 与实体 @Vid 字段的值比较
+ *
+ * @see io.github.BarrelStopHere.nebula.NebulaUtil#vertexLoader
+ */
+@Slf4j
+public class VertexLoader<T> implements Closeable {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    private final Function<List<Object>, CompletableFuture<List<T>>> fetcher;
+    private final Function<T, Object> vidOf;
+    private final VertexLoaderConfig config;
+    private final ScheduledExecutorService timer;
+    private final Object lock = new Object();
+    private Map<String, Pending<T>> batch = new LinkedHashMap<>();
+    // 每取走一批加一，过期的定时任务据此忽略
+    private long generation = 0;
+    private volatile boolean closed = false;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder deduped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param fetcher 批量查询，一般为在异步线程池中执行的 NebulaUtil#fetchVertices
+     * @param vidOf   读取实体的 VID
+     */
+    public VertexLoader(Function<List<Object>, CompletableFuture<List<T>>> fetcher, Function<T, Object> vidOf,
+                        VertexLoaderConfig config) {
+        if (config.getMaxBatchSize() <= 0 || config.getLingerMillis() <= 0) {
+            throw new IllegalArgumentException("maxBatchSize、lingerMillis 必须大于0");
+        }
+        this.fetcher = fetcher;
+        this.vidOf = vidOf;
+        this.config = config;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nebula-vertex-loader-" + THREAD_INDEX.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 查询单个顶点，不存在时 future 完成为 null
+     */
+    public CompletableFuture<T> load(Object id) {
+        if (id == null) {
+            throw new IllegalArgumentException("顶点ID不能为空");
+        }
+        String key = key(id);
+        Map<String, Pending<T>> ready = null;
+        CompletableFuture<T> future;
+        synchronized (lock) {
+            // 在锁内检查：close 持锁置位并取走最后一批，之后不会再有查询进入窗口或调度定时任务
+            checkClosed();
+            loads.increment();
+            Pending<T> pending = batch.get(key);
+            if (pending != null) {
+                deduped.increment();
+                return pending.future;
+            }
+            pending = new Pending<>(id);
+            batch.put(key, pending);
+            future = pending.future;
+            if (batch.size() >= config.getMaxBatchSize()) {
+                ready = takeBatch();
+            } else if (batch.size() == 1) {
+                long current = generation;
+                timer.schedule(() -> flush(current), config.getLingerMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return future;
+    }
+
+    /**
+     * 查询多个顶点，结果与 ids 一一对应，不存在的为 null
+     */
+    public CompletableFuture<List<T>> loadMany(Collection<?> ids) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            futures.add(load(id));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+            List<T> result = new ArrayList<>(futures.size());
+            for (CompletableFuture<T> future : futures) {
+                result.add(future.join());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 发送当前窗口内的查询后停止定时线程
+     */
+    @Override
+    public void close() {
+        Map<String, Pending<T>> ready;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ready = batch.isEmpty() ? null : takeBatch();
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        timer.shutdown();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getDeduped() {
+        return deduped.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    private void flush(long expected) {
+        Map<String, Pending<T>> ready;
+        synchronized (lock) {
+            if (generation != expected || batch.isEmpty()) {
+                return;
+            }
+            ready = takeBatch();
+        }
+        dispatch(ready);
+    }
+
+    private Map<String, Pending<T>> takeBatch() {
+        Map<String, Pending<T>> taken = batch;
+        batch = new LinkedHashMap<>();
+        generation++;
+        return taken;
+    }
+
+    private void dispatch(Map<String, Pending<T>> ready) {
+        batches.increment();
+        List<Object> ids = new ArrayList<>(ready.size());
+        for (Pending<T> pending : ready.values()) {
+            ids.add(pending.id);
+        }
+        CompletableFuture<List<T>> result;
+        try {
+            result = fetcher.apply(ids);
+        } catch (RuntimeException e) {
+            fail(ready, e);
+            return;
+        }
+        result.whenComplete((entities, error) -> {
+            if (error != null) {
+                fail(ready, error);
+                return;
+            }
+            try {
+                Map<String, T> byVid = new HashMap<>((int) (entities.size() / 0.75f) + 1);
+                for (T entity : entities) {
+                    Object vid = vidOf.apply(entity);
+                    if (vid != null) {
+                        byVid.put(key(vid), entity);
+                    }
+                }
+                for (Map.Entry<String, Pending<T>> entry : ready.entrySet()) {
+                    entry.getValue().future.complete(byVid.get(entry.getKey()));
+                }
+            } catch (RuntimeException e) {
+                fail(ready, e);
+            }
+        });
+    }
+
+    private void fail(Map<String, Pending<T>> ready, Throwable error) {
+        log.error("VertexLoader 批量查询失败（{} 个 VID）: {}", ready.size(), error.getMessage());
+        for (Pending<T> pending : ready.values()) {
+            pending.future.completeExceptionally(error);
+        }
+    }
+
+    private void checkClosed() {
+        if (closed) {
+            throw new NebulaException("VertexLoader 已关闭");
+        }
+    }
+
+    /**
+     * 比较用的键：带双引号的字符串 VID 去掉引号并按 graphd 字符串的转义规则（与 {@link NGqlEncoder} 一致）反转义，
+     * 与实体字段中的原始字符串一致；其他 VID（整数或未加引号的字符串）按 toString 原样比较
+     */
+    static String key(Object id) {
+        String s = id.toString();
+        int n = s.length();
+        if (n < 2 || s.charAt(0) != '"' || s.charAt(n - 1) != '"') {
+            return s;
+        }
+        if (s.indexOf('\\', 1) < 0) {
+            return s.substring(1, n - 1);
+        }
+        StringBuilder sb = new StringBuilder(n - 2);
+        for (int i = 1; i < n - 1; i++) {
+            char c = s.charAt(i);
+            if (c != '\\' || i + 1 >= n - 1) {
+                sb.append(c);
+                continue;
+            }
+            char next = s.charAt(++i);
+            switch (next) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                    // 八进制转义，最多三位
+                    int value = next - '0';
+                    for (int digits = 1; digits < 3 && i + 1 < n - 1; digits++) {
+                        char d = s.charAt(i + 1);
+                        if (d < '0' || d > '7') {
+                            break;
+                        }
+                        value = value * 8 + (d - '0');
+                        i++;
+                    }
+                    sb.append((char) value);
+                    break;
+                default:
+                    // \"、\\、\' 取转义后的字符本身；graphd 对未知的转义同样只保留该字符
+                    sb.append(next);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class Pending<T> {
+        private final Object id;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Pending(Object id) {
+            this.id = id;
+        }
+    }
+}
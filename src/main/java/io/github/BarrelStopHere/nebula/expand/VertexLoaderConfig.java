@@ -0,0 +1,20 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Data;
+
+/**
+ * VertexLoader 配置
+ */
+@Data
+public class VertexLoaderConfig {
+
+    /**
+     * 攒够多少个 VID 立即发送一次 FETCH
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * 第一个 VID 到达后最多等待多久（毫秒）即发送
+     */
+    private long lingerMillis = 2;
+}
@@ -0,0 +1,61 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量写入汇总结果
+ */
+@Getter
+@ToString
+public class WriteResult {
+
+    private static final WriteResult EMPTY = new WriteResult(Collections.emptyList());
+
+    private final List<ChunkResult> chunks;
+    private final long rowsWritten;
+    private final long rowsFailed;
+    private final int chunksFailed;
+
+    public WriteResult(List<ChunkResult> chunks) {
+        this.chunks = chunks;
+        long written = 0, failed = 0;
+        int failedChunks = 0;
+        for (ChunkResult chunk : chunks) {
+            if (chunk.isSucceeded()) {
+                written += chunk.getRows();
+            } else {
+                failed += chunk.getRows();
+                failedChunks++;
+            }
+        }
+        this.rowsWritten = written;
+        this.rowsFailed = failed;
+        this.chunksFailed = failedChunks;
+    }
+
+    public static WriteResult empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 按语句判断，行数为0的失败语句（如 DELETE、FETCH）同样视为失败
+     */
+    public boolean isSucceeded() {
+        return chunksFailed == 0;
+    }
+
+    public List<ChunkResult> getFailedChunks() {
+        List<ChunkResult> failed = new ArrayList<>();
+        for (ChunkResult chunk : chunks) {
+            if (!chunk.isSucceeded()) {
+                failed.add(chunk);
+            }
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.BarrelStopHere.nebula;
+
+import io.github.BarrelStopHere.nebula.expand.ExpandPoolConfig;
+import io.github.BarrelStopHere.nebula.expand.ExpandSessionManager;
+import io.github.BarrelStopHere.nebula.expand.ExpandSessionWrapper;
+import io.github.BarrelStopHere.nebula.expand.FakeGraphd;
+import io.github.BarrelStopHere.nebula.expand.NebulaException;
+import io.github.BarrelStopHere.nebula.expand.QueryEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NebulaUtil 执行语句时上报的查询事件
+ */
+class NebulaUtilTest {
+
+    private FakeGraphd graphd;
+    private ExpandSessionManager manager;
+    private NebulaUtil nebulaUtil;
+    private final List<QueryEvent> events = new CopyOnWriteArrayList<>();
+
+    /**
+     * NebulaUtil 的构造方法私有，正常由 getInstance 从容器中取得 session 管理
+     */
+    static NebulaUtil create(Map<String, ExpandSessionManager> managers) throws Exception {
+        Constructor<NebulaUtil> constructor = NebulaUtil.class.getDeclaredConstructor(Map.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(managers);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        graphd = new FakeGraphd();
+        ExpandPoolConfig config = new ExpandPoolConfig();
+        config.setMinIdle(0);
+        config.setBorrowTimeoutMillis(200);
+        manager = new ExpandSessionManager(FakeGraphd.managerConfig("test", 1, graphd), config);
+        nebulaUtil = create(Collections.singletonMap("test", manager));
+        nebulaUtil.addQueryListener(events::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close("root");
+        graphd.close();
+    }
+
+    @Test
+    void roundTripExcludesBorrowWait() throws Exception {
+        // 先建好 session，USE 语句不计入下面的延迟
+        manager.returnSessionWrapper(manager.getSessionWrapper());
+        graphd.setLatencyMillis(50);
+        assertTrue(nebulaUtil.execute("YIELD 1", "test").isSucceeded());
+        QueryEvent event = events.get(0);
+        assertTrue(event.isSucceeded());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(event.getRoundTripNanos()) >= 50);
+        assertTrue(event.getAcquireNanos() < event.getRoundTripNanos());
+    }
+
+    @Test
+    void exhaustedPoolIsReportedAsAcquireTime() throws Exception {
+        ExpandSessionWrapper held = manager.getSessionWrapper();
+        try {
+            assertThrows(NebulaException.class, () -> nebulaUtil.execute("YIELD 1", "test"));
+        } finally {
+            manager.returnSessionWrapper(held);
+        }
+        QueryEvent event = events.get(0);
+        assertFalse(event.isSucceeded());
+        // 等待借用直至超时，全部计为获取耗时，没有发出语句
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(event.getAcquireNanos()) >= 150);
+        assertEquals(0, event.getRoundTripNanos());
+        assertEquals(0, graphd.count("YIELD"));
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.BarrelStopHere.nebula;
+
+import com.vesoft.nebula.Value;
+import io.github.BarrelStopHere.nebula.annotation.EdgeFrom;
+import io.github.BarrelStopHere.nebula.annotation.EdgeTo;
+import io.github.BarrelStopHere.nebula.expand.Adjacency;
+import io.github.BarrelStopHere.nebula.expand.AdjacencyCache;
+import io.github.BarrelStopHere.nebula.expand.EdgeDirection;
+import io.github.BarrelStopHere.nebula.expand.ExpandPoolConfig;
+import io.github.BarrelStopHere.nebula.expand.ExpandSessionManager;
+import io.github.BarrelStopHere.nebula.expand.FakeGraphd;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * neighbors 经邻居缓存读取，边写入后失效
+ */
+class NeighborsTest {
+
+    private FakeGraphd graphd;
+    private ExpandSessionManager manager;
+    private NebulaUtil nebulaUtil;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        graphd = new FakeGraphd();
+        // GO 语句返回一个字符串邻居
+        graphd.setHandler(stmt -> stmt.startsWith("GO ") ? FakeGraphd.rows(Collections.singletonList("vid"),
+                Collections.singletonList(Collections.singletonList(
+                        Value.sVal("n".getBytes(StandardCharsets.UTF_8))))) : null);
+        ExpandPoolConfig config = new ExpandPoolConfig();
+        config.setMinIdle(0);
+        manager = new ExpandSessionManager(FakeGraphd.managerConfig("test", 2, graphd), config);
+        nebulaUtil = NebulaUtilTest.create(Collections.singletonMap("test", manager));
+        nebulaUtil.setAdjacencyCache(new AdjacencyCache(1 << 20, 1, TimeUnit.MINUTES));
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close("root");
+        graphd.close();
+    }
+
+    private Adjacency neighbors(String vid, String edgeName, EdgeDirection direction) {
+        return nebulaUtil.neighbors(vid, edgeName, direction, "test");
+    }
+
+    private long goCount(String vid, String edgeName, EdgeDirection direction) {
+        return graphd.count("GO FROM " + vid + " OVER " + edgeName + direction.clause() + " YIELD");
+    }
+
+    @Test
+    void secondQueryIsServedFromCache() {
+        Adjacency first = neighbors("\"a\"", "follow", EdgeDirection.OUT);
+        assertEquals(Collections.singletonList("n"), first);
+        assertSame(first, neighbors("\"a\"", "follow", EdgeDirection.OUT));
+        assertEquals(1, graphd.count("GO "));
+        assertEquals(1, nebulaUtil.getAdjacencyCache().getStats().getHits());
+
+        // 方向不同是不同的条目
+        neighbors("\"a\"", "follow", EdgeDirection.IN);
+        assertEquals(2, graphd.count("GO "));
+    }
+
+    @Test
+    void edgeWriteInvalidatesBothEndpointsOfThatEdgeType() {
+        neighbors("\"a\"", "follow", EdgeDirection.OUT);
+        neighbors("\"b\"", "follow", EdgeDirection.IN);
+        neighbors("\"c\"", "follow", EdgeDirection.OUT);
+        neighbors("\"a\"", "like", EdgeDirection.OUT);
+        assertEquals(4, graphd.count("GO "));
+
+        assertEquals(0, nebulaUtil.insertEdge(Collections.singletonList(new Follow("\"a\"", "\"b\"")),
+                "follow", "test").getChunksFailed());
+
+        neighbors("\"a\"", "follow", EdgeDirection.OUT);
+        neighbors("\"b\"", "follow", EdgeDirection.IN);
+        neighbors("\"c\"", "follow", EdgeDirection.OUT);
+        neighbors("\"a\"", "like", EdgeDirection.OUT);
+        // 只有 follow 边的两个端点重新查询
+        assertEquals(2, goCount("\"a\"", "follow", EdgeDirection.OUT));
+        assertEquals(2, goCount("\"b\"", "follow", EdgeDirection.IN));
+        assertEquals(1, goCount("\"c\"", "follow", EdgeDirection.OUT));
+        assertEquals(1, goCount("\"a\"", "like", EdgeDirection.OUT));
+    }
+
+    @Test
+    void writeDuringQueryKeepsResultOutOfCache() {
+        AtomicBoolean written = new AtomicBoolean();
+        graphd.setHandler(stmt -> {
+            if (stmt.startsWith("GO ") && written.compareAndSet(false, true)) {
+                // GO 执行期间，另一个 session 写入了同一边类型
+                nebulaUtil.insertEdge(Collections.singletonList(new Follow("\"x\"", "\"y\"")), "follow", "test");
+            }
+            return null;
+        });
+        neighbors("\"a\"", "follow", EdgeDirection.OUT);
+        assertEquals(1, graphd.count("INSERT EDGE follow"));
+        assertEquals(0, nebulaUtil.getAdjacencyCache().getStats().getSize());
+
+        // 没有并发写入时正常缓存
+        neighbors("\"a\"", "follow", EdgeDirection.OUT);
+        neighbors("\"a\"", "follow", EdgeDirection.OUT);
+        assertEquals(2, graphd.count("GO "));
+        assertEquals(1, nebulaUtil.getAdjacencyCache().getStats().getSize());
+    }
+
+    static class Follow {
+        @EdgeFrom
+        private String src;
+        @EdgeTo
+        private String dst;
+        private int degree = 1;
+
+        Follow(String src, String dst) {
+            this.src = src;
+            this.dst = dst;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Value;
+import com.vesoft.nebula.client.graph.data.ResultSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 邻居缓存的容量淘汰、TTL 和失效计数
+ */
+class AdjacencyCacheTest {
+
+    private static final EdgeDirection OUT = EdgeDirection.OUT;
+
+    private static Adjacency adjacency(long... vids) {
+        List<List<Value>> rows = new ArrayList<>();
+        for (long vid : vids) {
+            rows.add(Collections.singletonList(Value.iVal(vid)));
+        }
+        return Adjacency.of(new ResultSet(FakeGraphd.rows(Collections.singletonList("vid"), rows), 0));
+    }
+
+    private static void put(AdjacencyCache cache, String vid, Adjacency value) {
+        cache.put("s", "follow", OUT, vid, value, cache.generation("s", "follow"));
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedByBytes() {
+        Adjacency value = adjacency(1);
+        // 键 VID 长度相同，每个条目的估算占用一致，容量恰好放下 3 个
+        long entryBytes = value.estimatedBytes() + 64 + 40 + 2;
+        AdjacencyCache cache = new AdjacencyCache(3 * entryBytes, 1, TimeUnit.MINUTES);
+        put(cache, "a", value);
+        put(cache, "b", value);
+        put(cache, "c", value);
+        assertEquals(3 * entryBytes, cache.getBytes());
+
+        assertNotNull(cache.get("s", "follow", OUT, "a"));
+        put(cache, "d", value);
+        // b 最久未访问，被淘汰
+        assertNull(cache.get("s", "follow", OUT, "b"));
+        assertNotNull(cache.get("s", "follow", OUT, "a"));
+        assertNotNull(cache.get("s", "follow", OUT, "c"));
+        assertNotNull(cache.get("s", "follow", OUT, "d"));
+        assertEquals(3 * entryBytes, cache.getBytes());
+        assertEquals(1, cache.getStats().getEvictions());
+
+        // 单个超过上限的列表不缓存，也不挤掉已有条目
+        put(cache, "e", adjacency(new long[1000]));
+        assertNull(cache.get("s", "follow", OUT, "e"));
+        assertEquals(3, cache.getStats().getSize());
+    }
+
+    @Test
+    void expiredEntryIsDropped() throws Exception {
+        AdjacencyCache cache = new AdjacencyCache(1 << 20, 50, TimeUnit.MILLISECONDS);
+        Adjacency value = adjacency(1, 2);
+        put(cache, "a", value);
+        assertSame(value, cache.get("s", "follow", OUT, "a"));
+        Thread.sleep(80);
+        assertNull(cache.get("s", "follow", OUT, "a"));
+        assertEquals(0, cache.getBytes());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void quotedAndUnquotedVidShareEntry() {
+        AdjacencyCache cache = new AdjacencyCache(1 << 20, 1, TimeUnit.MINUTES);
+        Adjacency value = adjacency(1);
+        put(cache, "\"a\"", value);
+        assertSame(value, cache.get("s", "follow", OUT, "a"));
+        cache.invalidate("s", "follow", Collections.singletonList("a"));
+        assertNull(cache.get("s", "follow", OUT, "\"a\""));
+    }
+
+    @Test
+    void putAfterInvalidationOfSameEdgeIsSkipped() {
+        AdjacencyCache cache = new AdjacencyCache(1 << 20, 1, TimeUnit.MINUTES);
+        long follow = cache.generation("s", "follow");
+        long like = cache.generation("s", "like");
+        cache.invalidate("s", "follow", Collections.singletonList("x"));
+
+        // 查询期间同一边类型有写入，结果可能已过时
+        cache.put("s", "follow", OUT, "a", adjacency(1), follow);
+        assertNull(cache.get("s", "follow", OUT, "a"));
+        // 其他边类型不受影响
+        cache.put("s", "like", OUT, "a", adjacency(1), like);
+        assertNotNull(cache.get("s", "like", OUT, "a"));
+
+        long before = cache.generation("s", "like");
+        cache.invalidateSpace("s");
+        cache.put("s", "like", OUT, "b", adjacency(1), before);
+        assertNull(cache.get("s", "like", OUT, "b"));
+        assertNull(cache.get("s", "like", OUT, "a"));
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.client.graph.data.ResultSet;
+import io.github.BarrelStopHere.nebula.annotation.Vid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量写入的切分和并发执行
+ */
+class BatchWriteTest {
+
+    private FakeGraphd graphd;
+    private ExpandSessionManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        graphd = new FakeGraphd();
+        ExpandPoolConfig config = new ExpandPoolConfig();
+        config.setMinIdle(0);
+        manager = new ExpandSessionManager(FakeGraphd.managerConfig("test", 4, graphd), config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close("root");
+        graphd.close();
+    }
+
+    /**
+     * 每条语句借用一个 session 执行，与 NebulaUtil 的批量写入一致
+     */
+    private Function<BatchStatement, ResultSet> executor() {
+        return statement -> {
+            ExpandSessionWrapper session = null;
+            try {
+                session = manager.getSessionWrapper();
+                return statement.getParams() == null
+                        ? session.execute(statement.getNGql())
+                        : session.executeWithParameter(statement.getNGql(), statement.getParams());
+            } catch (Exception e) {
+                throw new NebulaException(e.getMessage());
+            } finally {
+                if (session != null) {
+                    manager.returnSessionWrapper(session);
+                }
+            }
+        };
+    }
+
+    private static List<Player> players(int count) {
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new Player("player" + i, "name \"" + i + "\"", 20 + i % 20));
+        }
+        return players;
+    }
+
+    @Test
+    void splitsByRowsAndExecutesEveryChunk() {
+        List<BatchStatement> statements = new VertexConvert<>(players(1000)).build("player", 100, 1024 * 1024);
+        assertEquals(10, statements.size());
+        WriteResult result = BatchExecutor.execute(statements, executor(), 4);
+        assertTrue(result.isSucceeded());
+        assertEquals(1000, result.getRowsWritten());
+        assertEquals(10, graphd.count("INSERT VERTEX player(name,age) VALUES "));
+        // 4 个并发语句最多占用 4 个 session
+        assertTrue(graphd.getAuthenticated() <= 4);
+    }
+
+    @Test
+    void splitsByBytes() {
+        List<Player> players = players(1000);
+        int maxBytes = 4096;
+        List<BatchStatement> statements = new VertexConvert<>(players).build("player", 1000, maxBytes);
+        assertTrue(statements.size() > 1);
+        int rows = 0;
+        for (BatchStatement statement : statements) {
+            assertTrue(statement.getNGql().length() <= maxBytes);
+            rows += statement.getRows();
+        }
+        assertEquals(1000, rows);
+    }
+
+    @Test
+    void parameterizedStatementsCarryValues() {
+        List<BatchStatement> statements = new VertexConvert<>(players(10)).buildParameterized("player", 4);
+        assertEquals(3, statements.size());
+        WriteResult result = BatchExecutor.execute(statements, executor(), 2);
+        assertTrue(result.isSucceeded());
+        assertEquals(10, result.getRowsWritten());
+        assertTrue(graphd.getStatements().stream().anyMatch(s -> s.contains("player9")));
+    }
+
+    @Test
+    void parameterizedStatementsWithMapper() {
+        List<MappedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            players.add(new MappedPlayer("player" + i, "name" + i, 20 + i));
+        }
+        assertNotNull(EntityMappers.of(MappedPlayer.class));
+        List<BatchStatement> statements = new VertexConvert<>(players).buildParameterized("player", 4);
+        assertEquals(3, statements.size());
+        BatchStatement first = statements.get(0);
+        assertTrue(first.getNGql().startsWith("INSERT VERTEX player(name,age) VALUES $v0:($p0_0,$p0_1)"));
+        // 每行一个 VID 参数和两个属性参数
+        assertEquals(12, first.getParams().size());
+        assertEquals("name3", first.getParams().get("p3_0"));
+        assertEquals(23, first.getParams().get("p3_1"));
+
+        WriteResult result = BatchExecutor.execute(statements, executor(), 2);
+        assertTrue(result.isSucceeded());
+        assertEquals(10, result.getRowsWritten());
+        assertTrue(graphd.getStatements().stream().anyMatch(s -> s.contains("p1_0=name9") && s.contains("v1=player9")));
+    }
+
+    @Test
+    void failedChunksAreReported() {
+        // VID 按原样写入语句，每行形如 player5:(...)
+        Pattern failing = Pattern.compile("\\bplayer5\\d?:\\(");
+        graphd.setHandler(stmt -> failing.matcher(stmt).find() ? FakeGraphd.error("write failed") : null);
+        List<BatchStatement> statements = new VertexConvert<>(players(100)).build("player", 10, 1024 * 1024);
+        WriteResult result = BatchExecutor.execute(statements, executor(), 4);
+        assertFalse(result.isSucceeded());
+        // player5、player50..59 分别落在两条语句中
+        assertEquals(2, result.getFailedChunks().size());
+        assertEquals(20, result.getRowsFailed());
+        assertEquals(80, result.getRowsWritten());
+        assertEquals("write failed", result.getFailedChunks().get(0).getErrorMessage());
+    }
+
+    @Test
+    void failedChunkWithoutRowsIsFailure() {
+        graphd.setHandler(stmt -> FakeGraphd.error("delete failed"));
+        List<BatchStatement> statements = Collections.singletonList(new BatchStatement("DELETE VERTEX \"player0\"", 0));
+        WriteResult result = BatchExecutor.execute(statements, executor(), 1);
+        assertEquals(0, result.getRowsFailed());
+        assertEquals(1, result.getChunksFailed());
+        assertFalse(result.isSucceeded());
+    }
+
+    @Test
+    void emptyBatchSucceeds() {
+        WriteResult result = BatchExecutor.execute(Collections.emptyList(), executor(), 4);
+        assertTrue(result.isSucceeded());
+        assertEquals(0, graphd.getAuthenticated());
+    }
+
+    static class Player {
+        @Vid
+        private final String vid;
+        private final String name;
+        private final int age;
+
+        Player(String vid, String name, int age) {
+            this.vid = vid;
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    /**
+     * 有映射类的实体，映射类见 {@link BatchWriteTest_MappedPlayer_NebulaMapper}
+     */
+    static class MappedPlayer {
+        @Vid
+        String vid;
+        String name;
+        int age;
+
+        MappedPlayer() {
+        }
+
+        MappedPlayer(String vid, String name, int age) {
+            this.vid = vid;
+            this.name = name;
+            this.age = age;
+        }
+    }
+}
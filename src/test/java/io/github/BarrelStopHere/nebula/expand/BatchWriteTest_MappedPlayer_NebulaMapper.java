@@ -0,0 +1,124 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Value;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * {@link BatchWriteTest.MappedPlayer} 的映射类
+ * 测试编译不启用 NebulaMapperProcessor，这里按其生成的代码手写，供 {@link EntityMappers#of} 按名称加载
+ */
+public final class BatchWriteTest_MappedPlayer_NebulaMapper implements EntityMapper<BatchWriteTest.MappedPlayer> {
+
+    private static final String[] PROP_NAMES = {"name", "age"};
+    private static final Function<Value, Object> DECODER_0 = ValueDecoders.decoder(String.class, String.class);
+    private static final Function<Value, Object> DECODER_1 = ValueDecoders.decoder(String.class, String.class);
+
+    @Override
+    public Class<BatchWriteTest.MappedPlayer> entityType() {
+        return BatchWriteTest.MappedPlayer.class;
+    }
+
+    @Override
+    public boolean isVertex() {
+        return true;
+    }
+
+    @Override
+    public boolean isEdge() {
+        return false;
+    }
+
+    @Override
+    public boolean hasRank() {
+        return false;
+    }
+
+    @Override
+    public String[] propNames() {
+        return PROP_NAMES.clone();
+    }
+
+    @Override
+    public Object vid(BatchWriteTest.MappedPlayer entity) {
+        return entity.vid;
+    }
+
+    @Override
+    public Object from(BatchWriteTest.MappedPlayer entity) {
+        return null;
+    }
+
+    @Override
+    public Object to(BatchWriteTest.MappedPlayer entity) {
+        return null;
+    }
+
+    @Override
+    public Object rank(BatchWriteTest.MappedPlayer entity) {
+        return null;
+    }
+
+    @Override
+    public Object prop(BatchWriteTest.MappedPlayer entity, int index) {
+        switch (index) {
+            case 0:
+                return entity.name;
+            case 1:
+                return entity.age;
+            default:
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+    }
+
+    @Override
+    public void appendProps(BatchWriteTest.MappedPlayer entity, StringBuilder sb) {
+        NGqlEncoder.appendString(sb, entity.name);
+        sb.append(',');
+        sb.append(entity.age);
+    }
+
+    @Override
+    public void putProps(BatchWriteTest.MappedPlayer entity, String[] paramNames, Map<String, Object> params) {
+        params.put(paramNames[0], EntityMappers.param(entity.name));
+        params.put(paramNames[1], entity.age);
+    }
+
+    @Override
+    public BatchWriteTest.MappedPlayer newInstance() {
+        return new BatchWriteTest.MappedPlayer();
+    }
+
+    @Override
+    public int fieldIndex(String fieldName) {
+        switch (fieldName) {
+            case "vid":
+                return 0;
+            case "name":
+                return 1;
+            case "age":
+                return 2;
+            default:
+                return -1;
+        }
+    }
+
+    @Override
+    public void set(BatchWriteTest.MappedPlayer entity, int fieldIndex, Value value) {
+        switch (fieldIndex) {
+            case 0:
+                entity.vid = (String) DECODER_0.apply(value);
+                return;
+            case 1:
+                entity.name = (String) DECODER_1.apply(value);
+                return;
+            case 2:
+                if (!ValueDecoders.isNull(value)) {
+                    entity.age = (int) ValueDecoders.toLong(value);
+                }
+                return;
+            default:
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.client.graph.NebulaPoolConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ExpandSessionManager 的借还、等待、并发和共享名额
+ */
+class ExpandSessionManagerTest {
+
+    private FakeGraphd graphd;
+    private final List<ExpandSessionManager> managers = new ArrayList<>();
+    private final List<SharedSessionPool> sharedPools = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        graphd = new FakeGraphd();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (ExpandSessionManager manager : managers) {
+            manager.close("root");
+        }
+        sharedPools.forEach(SharedSessionPool::close);
+        graphd.close();
+    }
+
+    private ExpandSessionManager manager(int maxConnSize, ExpandPoolConfig expandConfig) {
+        return manager("test", maxConnSize, expandConfig, null);
+    }
+
+    private ExpandSessionManager manager(String space, int maxConnSize, ExpandPoolConfig expandConfig,
+                                         SharedSessionPool sharedPool) {
+        ExpandSessionManager manager = new ExpandSessionManager(
+                FakeGraphd.managerConfig(space, maxConnSize, graphd), expandConfig, sharedPool);
+        managers.add(manager);
+        return manager;
+    }
+
+    private SharedSessionPool sharedPool(int maxTotal) {
+        SharedSessionPool sharedPool = new SharedSessionPool(new NebulaPoolConfig(), maxTotal);
+        sharedPools.add(sharedPool);
+        return sharedPool;
+    }
+
+    private static ExpandPoolConfig config() {
+        ExpandPoolConfig config = new ExpandPoolConfig();
+        config.setMinIdle(0);
+        config.setBorrowTimeoutMillis(200);
+        return config;
+    }
+
+    @Test
+    void returnedSessionIsReusedFirst() throws Exception {
+        ExpandSessionManager manager = manager(4, config());
+        ExpandSessionWrapper first = manager.getSessionWrapper();
+        manager.returnSessionWrapper(first);
+        for (int i = 0; i < 100; i++) {
+            ExpandSessionWrapper session = manager.getSessionWrapper();
+            assertSame(first, session);
+            manager.returnSessionWrapper(session);
+        }
+        assertEquals(1, graphd.getAuthenticated());
+        assertEquals(1, graphd.count("USE test"));
+        PoolStats stats = manager.getPoolStats();
+        assertEquals(0, stats.getInUse());
+        assertEquals(1, stats.getIdle());
+        assertEquals(101, stats.getBorrowed());
+    }
+
+    @Test
+    void warmupCreatesSessionsUpFront() {
+        ExpandPoolConfig config = config();
+        config.setMinIdle(3);
+        ExpandSessionManager manager = manager(4, config);
+        assertEquals(3, manager.getPoolStats().getIdle());
+        assertEquals(3, graphd.getActiveSessions());
+    }
+
+    @Test
+    void borrowWaitsThenTimesOutWhenExhausted() throws Exception {
+        ExpandSessionManager manager = manager(2, config());
+        manager.getSessionWrapper();
+        manager.getSessionWrapper();
+        long start = System.nanoTime();
+        RuntimeException e = assertThrows(RuntimeException.class, manager::getSessionWrapper);
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(e.getMessage().contains("does not have available sessions"));
+        assertTrue(waited >= 150, "应等待 borrowTimeoutMillis 后才失败，实际 " + waited + "ms");
+        assertEquals(1, manager.getPoolStats().getBorrowTimeouts());
+    }
+
+    @Test
+    void waitingBorrowGetsReturnedSession() throws Exception {
+        ExpandPoolConfig config = config();
+        config.setBorrowTimeoutMillis(5000);
+        ExpandSessionManager manager = manager(1, config);
+        ExpandSessionWrapper held = manager.getSessionWrapper();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ExpandSessionWrapper> waiting = executor.submit(manager::getSessionWrapper);
+            Thread.sleep(50);
+            manager.returnSessionWrapper(held);
+            assertSame(held, waiting.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentBorrowNeverExceedsMax() throws Exception {
+        int maxConnSize = 4, threads = 8, rounds = 200;
+        ExpandPoolConfig config = config();
+        config.setBorrowTimeoutMillis(10000);
+        ExpandSessionManager manager = manager(maxConnSize, config);
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger executed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        ExpandSessionWrapper session = manager.getSessionWrapper();
+                        try {
+                            peak.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                            assertTrue(session.execute("YIELD 1").isSucceeded());
+                            executed.incrementAndGet();
+                        } finally {
+                            inUse.decrementAndGet();
+                            manager.returnSessionWrapper(session);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * rounds, executed.get());
+        assertTrue(peak.get() <= maxConnSize, "同时借出 " + peak.get());
+        assertTrue(graphd.getAuthenticated() <= maxConnSize);
+        PoolStats stats = manager.getPoolStats();
+        assertEquals(0, stats.getInUse());
+        assertEquals(stats.getTotal(), stats.getIdle());
+    }
+
+    @Test
+    void releaseDestroysSessionAndFreesSlot() throws Exception {
+        ExpandSessionManager manager = manager(1, config());
+        ExpandSessionWrapper session = manager.getSessionWrapper();
+        manager.release(session);
+        assertEquals(0, graphd.awaitActiveSessions(0, 5000));
+        ExpandSessionWrapper replacement = manager.getSessionWrapper();
+        assertNotSame(session, replacement);
+        assertEquals(2, graphd.getAuthenticated());
+        manager.returnSessionWrapper(replacement);
+    }
+
+    @Test
+    void sharedBorrowWaitsForAnotherSpaceToReturn() throws Exception {
+        SharedSessionPool shared = sharedPool(1);
+        ExpandPoolConfig config = config();
+        config.setBorrowTimeoutMillis(5000);
+        ExpandSessionManager a = manager("a", 1, config, shared);
+        ExpandSessionManager b = manager("b", 1, config, shared);
+        ExpandSessionWrapper held = a.getSessionWrapper();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ExpandSessionWrapper> waiting = executor.submit(b::getSessionWrapper);
+            Thread.sleep(100);
+            a.returnSessionWrapper(held);
+            // b 接管 a 归还的空闲 session 并切换到自己的 space
+            ExpandSessionWrapper adopted = waiting.get(5, TimeUnit.SECONDS);
+            assertSame(held.getSession(), adopted.getSession());
+            assertEquals(1, graphd.count("USE b"));
+            assertEquals(1, b.getPoolStats().getSwitched());
+            b.returnSessionWrapper(adopted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sharedBorrowTimesOutWithoutDonor() throws Exception {
+        SharedSessionPool shared = sharedPool(1);
+        ExpandSessionManager a = manager("a", 1, config(), shared);
+        ExpandSessionManager b = manager("b", 1, config(), shared);
+        ExpandSessionWrapper held = a.getSessionWrapper();
+        long start = System.nanoTime();
+        assertThrows(RuntimeException.class, b::getSessionWrapper);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        a.returnSessionWrapper(held);
+    }
+
+    @Test
+    void closeReturnsSharedQuota() throws Exception {
+        SharedSessionPool shared = sharedPool(4);
+        ExpandPoolConfig config = config();
+        config.setReservedSessions(1);
+        ExpandSessionManager manager = manager("a", 4, config, shared);
+        List<ExpandSessionWrapper> sessions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sessions.add(manager.getSessionWrapper());
+        }
+        sessions.forEach(manager::returnSessionWrapper);
+        assertEquals(1, shared.getAvailable());
+        manager.close("root");
+        assertEquals(4, shared.getAvailable());
+    }
+}
@@ -0,0 +1,291 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.facebook.thrift.protocol.TCompactProtocol;
+import com.facebook.thrift.protocol.TProtocol;
+import com.facebook.thrift.transport.TSocket;
+import com.vesoft.nebula.DataSet;
+import com.vesoft.nebula.ErrorCode;
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import com.vesoft.nebula.client.graph.NebulaPoolConfig;
+import com.vesoft.nebula.client.graph.SessionsManagerConfig;
+import com.vesoft.nebula.client.graph.data.HostAddress;
+import com.vesoft.nebula.graph.AuthResponse;
+import com.vesoft.nebula.graph.ExecutionResponse;
+import com.vesoft.nebula.graph.GraphService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 测试用的进程内 graphd
+ * 以 nebula-java 相同的 TCompactProtocol 提供 GraphService 的 authenticate / execute /
+ * executeWithParameter / signout，语句的响应由 handler 决定，默认返回空结果的成功响应；
+ * 记录收到的语句和当前登录的 session，可注入固定延迟
+ */
+public class FakeGraphd implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Set<Long> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextSessionId = new AtomicLong(1);
+    private final AtomicLong authenticated = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> statements = new ConcurrentLinkedQueue<>();
+    private final GraphService.Processor processor;
+    private volatile Function<String, ExecutionResponse> handler = stmt -> ok();
+    private volatile long latencyMillis = 0;
+    private volatile boolean closed = false;
+
+    public FakeGraphd() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        GraphService.Iface iface = (GraphService.Iface) Proxy.newProxyInstance(
+                GraphService.Iface.class.getClassLoader(), new Class<?>[]{GraphService.Iface.class}, new Handler());
+        this.processor = new GraphService.Processor(iface);
+        this.acceptor = new Thread(this::accept, "fake-graphd-" + serverSocket.getLocalPort());
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    public HostAddress getAddress() {
+        return new HostAddress("127.0.0.1", serverSocket.getLocalPort());
+    }
+
+    /**
+     * 按语句返回响应，返回 null 时按成功处理
+     */
+    public void setHandler(Function<String, ExecutionResponse> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 每条语句（连通性检查除外）执行前的固定延迟
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * 收到的全部语句，不含连通性检查
+     */
+    public List<String> getStatements() {
+        return new ArrayList<>(statements);
+    }
+
+    public long count(String prefix) {
+        return statements.stream().filter(s -> s.startsWith(prefix)).count();
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * 等待登录中的 session 数变为 expected；signout 是 oneway 调用，客户端返回时服务端可能尚未处理
+     */
+    public int awaitActiveSessions(int expected, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (sessions.size() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return sessions.size();
+    }
+
+    public long getAuthenticated() {
+        return authenticated.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+    }
+
+    public static ExecutionResponse ok() {
+        return rows(Collections.emptyList(), Collections.<List<Value>>emptyList());
+    }
+
+    public static ExecutionResponse error(String message) {
+        ExecutionResponse response = new ExecutionResponse();
+        response.setError_code(ErrorCode.E_EXECUTION_ERROR);
+        response.setLatency_in_us(1);
+        response.setError_msg(message.getBytes(StandardCharsets.UTF_8));
+        return response;
+    }
+
+    public static ExecutionResponse rows(List<String> columns, List<List<Value>> rows) {
+        List<byte[]> columnNames = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            columnNames.add(column.getBytes(StandardCharsets.UTF_8));
+        }
+        List<Row> dataRows = new ArrayList<>(rows.size());
+        for (List<Value> values : rows) {
+            dataRows.add(new Row(values));
+        }
+        ExecutionResponse response = new ExecutionResponse();
+        response.setError_code(ErrorCode.SUCCEEDED);
+        response.setLatency_in_us(1);
+        response.setData(new DataSet(columnNames, dataRows));
+        return response;
+    }
+
+    /**
+     * 单 graphd 或多 graphd 的 session 管理配置
+     */
+    public static SessionsManagerConfig managerConfig(String space, int maxConnSize, FakeGraphd... servers) {
+        List<HostAddress> addresses = new ArrayList<>(servers.length);
+        for (FakeGraphd server : servers) {
+            addresses.add(server.getAddress());
+        }
+        NebulaPoolConfig poolConfig = new NebulaPoolConfig();
+        poolConfig.setMaxConnSize(maxConnSize);
+        SessionsManagerConfig config = new SessionsManagerConfig();
+        config.setAddresses(addresses);
+        config.setUserName("root");
+        config.setPassword("nebula");
+        config.setSpaceName(space);
+        config.setReconnect(false);
+        config.setPoolConfig(poolConfig);
+        return config;
+    }
+
+    private void accept() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                return;
+            }
+            connections.add(socket);
+            Thread worker = new Thread(() -> serve(socket), "fake-graphd-conn");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            TProtocol protocol = new TCompactProtocol(new TSocket(socket));
+            while (!closed && processor.process(protocol, protocol, null)) {
+                // 一个连接上的请求依次处理，与 graphd 一致
+            }
+        } catch (Exception e) {
+            // 客户端断开或服务关闭
+        } finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private ExecutionResponse execute(long sessionId, String stmt) {
+        // 连接池以 session 0 做连通性检查
+        if (sessionId == 0) {
+            return ok();
+        }
+        if (!sessions.contains(sessionId)) {
+            ExecutionResponse response = error("Session not existed!");
+            response.setError_code(ErrorCode.E_SESSION_INVALID);
+            return response;
+        }
+        statements.add(stmt);
+        long latency = latencyMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ExecutionResponse response = handler.apply(stmt);
+        return response != null ? response : ok();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 以动态代理实现 GraphService.Iface，未用到的接口（如 JSON 执行）直接报错
+     */
+    private class Handler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+            switch (method.getName()) {
+                case "authenticate":
+                    long sessionId = nextSessionId.getAndIncrement();
+                    sessions.add(sessionId);
+                    authenticated.incrementAndGet();
+                    AuthResponse auth = new AuthResponse();
+                    auth.setError_code(ErrorCode.SUCCEEDED);
+                    auth.setSession_id(sessionId);
+                    auth.setTime_zone_offset_seconds(0);
+                    auth.setTime_zone_name("UTC".getBytes(StandardCharsets.UTF_8));
+                    return auth;
+                case "signout":
+                    sessions.remove((Long) args[0]);
+                    return null;
+                case "execute":
+                    return execute((Long) args[0], new String((byte[]) args[1], StandardCharsets.UTF_8));
+                case "executeWithParameter":
+                    return execute((Long) args[0], new String((byte[]) args[1], StandardCharsets.UTF_8)
+                            + " " + parameters(args[2]));
+                case "verifyClientVersion":
+                    // 响应类型随客户端版本变化，按返回类型构造成功响应
+                    Object response = method.getReturnType().newInstance();
+                    method.getReturnType().getMethod("setError_code", ErrorCode.class)
+                            .invoke(response, ErrorCode.SUCCEEDED);
+                    return response;
+                default:
+                    throw new IllegalStateException("FakeGraphd 不支持 " + method.getName());
+            }
+        }
+
+        /**
+         * 参数按名称排序后追加在语句后，便于断言
+         */
+        private String parameters(Object parameterMap) {
+            Map<String, Value> params = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) parameterMap).entrySet()) {
+                params.put(new String((byte[]) entry.getKey(), StandardCharsets.UTF_8), (Value) entry.getValue());
+            }
+            Map<String, Object> decoded = new LinkedHashMap<>();
+            for (Map.Entry<String, Value> entry : params.entrySet()) {
+                decoded.put(entry.getKey(), ValueDecoders.decodeNatural(entry.getValue()));
+            }
+            return decoded.toString();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import io.github.BarrelStopHere.nebula.annotation.Vid;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * FETCH 语句的 YIELD 别名与行映射的对应
+ */
+class FetchConvertTest {
+
+    private static Value str(String s) {
+        return Value.sVal(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void aliasesAreFieldNames() {
+        List<BatchStatement> statements = FetchConvert.vertices(Arrays.asList("\"p1\"", "\"p2\""), "page",
+                Page.class, 100, 1 << 20);
+        assertEquals(1, statements.size());
+        String nGql = statements.get(0).getNGql();
+        assertEquals("FETCH PROP ON page \"p1\",\"p2\""
+                + " YIELD id(vertex) AS pageId, page.URL AS URL, page.viewCount AS viewCount", nGql);
+
+        // 按 YIELD 的别名映射，连续大写的属性也能对应到字段
+        List<String> columns = new ArrayList<>();
+        Matcher matcher = Pattern.compile(" AS (\\w+)").matcher(nGql);
+        while (matcher.find()) {
+            columns.add(matcher.group(1));
+        }
+        Page page = RowMappingPlan.of(Page.class, columns)
+                .map(new Row(Arrays.asList(str("p1"), str("http://a"), Value.iVal(5))));
+        assertEquals("p1", page.pageId);
+        assertEquals("http://a", page.URL);
+        assertEquals(5, page.viewCount);
+    }
+
+    static class Page {
+        @Vid
+        private String pageId;
+        private String URL;
+        private int viewCount;
+    }
+}
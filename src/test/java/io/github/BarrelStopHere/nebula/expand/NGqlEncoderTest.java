@@ -0,0 +1,59 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 字符串字面量转义和按行数、字节数切分
+ */
+class NGqlEncoderTest {
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder();
+        NGqlEncoder.appendString(sb, value);
+        return sb.toString();
+    }
+
+    @Test
+    void escapesQuotesAndBackslash() {
+        assertEquals("\"a\\\"b\\\\c'\"", literal("a\"b\\c'"));
+        assertEquals("NULL", literal(null));
+    }
+
+    @Test
+    void controlCharactersUseEscapesGraphdUnderstands() {
+        assertEquals("\"\\b\\t\\n\\f\\r\"", literal("\b\t\n\f\r"));
+        // 其他控制字符按三位八进制转义，后面紧跟数字也不会被并入
+        assertEquals("\"a\\001b\\0037\\037\"", literal("a\u0001b\u00037\u001f"));
+        assertEquals("\"中文\"", literal("中文"));
+    }
+
+    @Test
+    void splitsByRowsAndBytes() {
+        List<String> rows = Arrays.asList("aaaa", "bbbb", "cccc", "dddd", "eeee");
+        NGqlEncoder.RowWriter<String> writer = (row, sb) -> {
+            sb.append(row);
+            return true;
+        };
+        List<BatchStatement> byRows = NGqlEncoder.encode("H ", rows, writer, 2, 1024);
+        assertEquals(3, byRows.size());
+        assertEquals("H aaaa,bbbb", byRows.get(0).getNGql());
+        assertEquals(1, byRows.get(2).getRows());
+
+        // 语句头 2 字节，每行计 5 字节（含分隔符），上限 12 时每条两行
+        List<BatchStatement> byBytes = NGqlEncoder.encode("H ", rows, writer, 100, 12);
+        assertEquals(3, byBytes.size());
+        assertEquals("H cccc,dddd", byBytes.get(1).getNGql());
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> NGqlEncoder.encode("H ", Arrays.asList("a"), (row, sb) -> true, 0, 10));
+    }
+}
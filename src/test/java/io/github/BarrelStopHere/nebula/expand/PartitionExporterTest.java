@@ -0,0 +1,152 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按分区导出，扫描由假的 PartScanner 提供
+ */
+class PartitionExporterTest {
+
+    private static final List<String> COLUMNS = Arrays.asList("id", "name");
+    private static final LineFormatter<Item> FORMATTER = (item, sb) -> sb.append(item.id).append(',').append(item.name);
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 每个分区 rows 行，每批 100 行；failingPart 在写出 failAfter 行后抛出异常
+     */
+    private static PartitionExporter.PartScanner scanner(int rows, int failingPart, int failAfter) {
+        return (part, batches) -> {
+            List<Row> batch = new ArrayList<>(100);
+            for (int i = 0; i < rows; i++) {
+                if (part == failingPart && i == failAfter) {
+                    throw new IllegalStateException("storage 不可用");
+                }
+                batch.add(new Row(Arrays.asList(
+                        Value.sVal((part + "-" + i).getBytes(StandardCharsets.UTF_8)),
+                        Value.sVal(("name-padding-padding-" + i).getBytes(StandardCharsets.UTF_8)))));
+                if (batch.size() == 100) {
+                    batches.accept(batch);
+                    batch = new ArrayList<>(100);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.accept(batch);
+            }
+        };
+    }
+
+    private PartitionExporter<Item> exporter(PartitionExporter.PartScanner scanner, Path output, ExportConfig config) {
+        return new PartitionExporter<>(Arrays.asList(1, 2, 3), scanner, Item.class, COLUMNS, FORMATTER, output, config);
+    }
+
+    private static long linesOf(List<String> lines, int part) {
+        return lines.stream().filter(line -> line.startsWith(part + "-")).count();
+    }
+
+    @Test
+    void exportsEveryPartition() throws Exception {
+        Path output = dir.resolve("all.csv");
+        ExportProgress progress = exporter(scanner(1000, -1, 0), output, new ExportConfig()).run();
+        assertTrue(progress.isSucceeded());
+        assertEquals(3, progress.getPartitionsDone());
+        assertEquals(3000, progress.getRowsExported());
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(3000, lines.size());
+        assertEquals(1000, linesOf(lines, 2));
+    }
+
+    @Test
+    void failedPartitionIsReportedWithPartialRows() throws Exception {
+        Path output = dir.resolve("partial.csv");
+        // 每行约 40 字符，5000 行后失败时已按 64K 字符的块写出一部分
+        ExportProgress progress = exporter(scanner(10000, 2, 5000), output, new ExportConfig()).run();
+        assertFalse(progress.isSucceeded());
+        assertEquals(Collections.singletonList(2), progress.getFailedPartitions());
+        assertEquals(2, progress.getPartitionsDone());
+
+        List<String> lines = Files.readAllLines(output);
+        long written = linesOf(lines, 2);
+        // 失败分区已写出的行留在文件中，未写出的丢弃，计数与文件一致
+        assertTrue(written > 0 && written < 5000, "失败分区写出 " + written + " 行");
+        assertEquals(written, progress.getPartialRows());
+        assertEquals(lines.size(), progress.getRowsExported());
+        assertEquals(10000, linesOf(lines, 1));
+        assertEquals(10000, linesOf(lines, 3));
+    }
+
+    @Test
+    void failOnPartitionErrorAbortsRun() {
+        ExportConfig config = new ExportConfig();
+        config.setFailOnPartitionError(true);
+        config.setPartitionParallelism(1);
+        Path output = dir.resolve("abort.csv");
+        NebulaException e = assertThrows(NebulaException.class,
+                () -> exporter(scanner(1000, 1, 10), output, config).run());
+        assertTrue(e.getMessage().contains("[1]"));
+    }
+
+    @Test
+    void emptyPartitionListWritesHeaderOnly() throws Exception {
+        Path output = dir.resolve("empty.csv");
+        LineFormatter<Item> formatter = new LineFormatter<Item>() {
+            @Override
+            public String header() {
+                return "id,name";
+            }
+
+            @Override
+            public void format(Item entity, StringBuilder sb) {
+                FORMATTER.format(entity, sb);
+            }
+        };
+        ExportProgress progress = new PartitionExporter<>(Collections.emptyList(), scanner(10, -1, 0), Item.class,
+                COLUMNS, formatter, output, new ExportConfig()).run();
+        assertTrue(progress.isSucceeded());
+        assertEquals(Collections.singletonList("id,name"), Files.readAllLines(output));
+    }
+
+    @Test
+    void keyAndPropColumnsKeepFieldNames() throws Exception {
+        List<String> columns = PartitionExporter.columns(Collections.singletonList("URL"),
+                Page.class.getDeclaredField("pageId"));
+        assertEquals(Arrays.asList("pageId", "URL"), columns);
+
+        Path output = dir.resolve("page.csv");
+        PartitionExporter.PartScanner scanner = (part, batches) -> batches.accept(Collections.singletonList(
+                new Row(Arrays.asList(Value.sVal(("p" + part).getBytes(StandardCharsets.UTF_8)),
+                        Value.sVal("http://a".getBytes(StandardCharsets.UTF_8))))));
+        LineFormatter<Page> formatter = (page, sb) -> sb.append(page.pageId).append(',').append(page.URL);
+        ExportProgress progress = new PartitionExporter<>(Collections.singletonList(1), scanner, Page.class,
+                columns, formatter, output, new ExportConfig()).run();
+        assertTrue(progress.isSucceeded());
+        assertEquals(Collections.singletonList("p1,http://a"), Files.readAllLines(output));
+    }
+
+    public static class Page {
+        private String pageId;
+        private String URL;
+    }
+
+    public static class Item {
+        private String id;
+        private String name;
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多 graphd 之间的路由和故障摘除
+ */
+class RoutingTest {
+
+    private FakeGraphd fast;
+    private FakeGraphd slow;
+    private ExpandSessionManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fast = new FakeGraphd();
+        slow = new FakeGraphd();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.close("root");
+        }
+        fast.close();
+        slow.close();
+    }
+
+    private ExpandSessionManager manager(ExpandPoolConfig config) {
+        manager = new ExpandSessionManager(FakeGraphd.managerConfig("test", 4, fast, slow), config);
+        return manager;
+    }
+
+    private static ExpandPoolConfig config(RoutingPolicy policy) {
+        ExpandPoolConfig config = new ExpandPoolConfig();
+        config.setMinIdle(0);
+        config.setRoutingPolicy(policy);
+        config.setBorrowTimeoutMillis(1000);
+        return config;
+    }
+
+    private void executeOnce(ExpandSessionManager manager) throws Exception {
+        ExpandSessionWrapper session = manager.getSessionWrapper();
+        try {
+            assertTrue(session.execute("MATCH (v) RETURN v LIMIT 1").isSucceeded());
+        } finally {
+            manager.returnSessionWrapper(session);
+        }
+    }
+
+    @Test
+    void ewmaPrefersFasterHost() throws Exception {
+        slow.setLatencyMillis(30);
+        ExpandSessionManager manager = manager(config(RoutingPolicy.EWMA));
+        for (int i = 0; i < 100; i++) {
+            executeOnce(manager);
+        }
+        long onFast = fast.count("MATCH");
+        long onSlow = slow.count("MATCH");
+        assertEquals(100, onFast + onSlow);
+        assertTrue(onFast > 80, "快节点执行 " + onFast + " 条，慢节点 " + onSlow + " 条");
+        List<HostStats> stats = manager.getHostStats();
+        assertTrue(stats.get(1).getEwmaMillis() > stats.get(0).getEwmaMillis());
+    }
+
+    @Test
+    void unreachableHostIsEjected() throws Exception {
+        ExpandPoolConfig config = config(RoutingPolicy.LEAST_OUTSTANDING);
+        config.setEjectAfterFailures(1);
+        ExpandSessionManager manager = manager(config);
+        assertFalse(manager.getHostStats().get(1).isEjected());
+        slow.close();
+        // 每次借用都能成功：落到不可达节点时建 session 失败并摘除，退而使用另一个节点
+        // 起点随机，20 次借用都未落到不可达节点的概率可忽略
+        for (int i = 0; i < 20; i++) {
+            executeOnce(manager);
+        }
+        assertTrue(manager.getHostStats().get(1).isEjected());
+        assertFalse(manager.getHostStats().get(0).isEjected());
+        assertEquals(20, fast.count("MATCH"));
+    }
+}
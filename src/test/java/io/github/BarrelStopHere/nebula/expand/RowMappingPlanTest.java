@@ -0,0 +1,132 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.NullType;
+import com.vesoft.nebula.Row;
+import com.vesoft.nebula.Value;
+import io.github.BarrelStopHere.nebula.annotation.NebulaIgnore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 行映射：列名到字段的对应、final 字段、映射类和计划缓存
+ */
+class RowMappingPlanTest {
+
+    private static Value str(String s) {
+        return Value.sVal(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Value nullValue() {
+        return Value.nVal(NullType.__NULL__);
+    }
+
+    @Test
+    void mapsColumnsByCamelCaseName() {
+        RowMappingPlan<Person> plan = RowMappingPlan.of(Person.class, Arrays.asList("v.user_name", "age", "other"));
+        Person person = plan.map(new Row(Arrays.asList(str("tom"), Value.iVal(30), str("x"))));
+        assertEquals("tom", person.userName);
+        assertEquals(30, person.age);
+        assertNull(person.ignored);
+    }
+
+    @Test
+    void columnNamedAsFieldIsMappedDirectly() {
+        // 连续大写的字段名转下划线再转回驼峰会变样，与字段同名的列不经转换
+        RowMappingPlan<Link> plan = RowMappingPlan.of(Link.class, Arrays.asList("v.URL", "homeURL", "page_id"));
+        Link link = plan.map(new Row(Arrays.asList(str("a"), str("b"), Value.iVal(3))));
+        assertEquals("a", link.URL);
+        assertEquals("b", link.homeURL);
+        assertEquals(3, link.pageId);
+    }
+
+    @Test
+    void finalFieldsAreMapped() {
+        RowMappingPlan<Immutable> plan = RowMappingPlan.of(Immutable.class, Arrays.asList("name", "score", "tags"));
+        Immutable entity = plan.map(new Row(Arrays.asList(str("a"), Value.iVal(7), nullValue())));
+        assertEquals("a", entity.name);
+        assertEquals(7, entity.score);
+        assertNull(entity.tags);
+
+        // NULL 保持基本类型字段的默认值
+        Immutable empty = plan.map(new Row(Arrays.asList(nullValue(), nullValue(), nullValue())));
+        assertNull(empty.name);
+        assertEquals(-1, empty.score);
+    }
+
+    @Test
+    void finalFieldsAreMappedAlongsideMapper() {
+        assertNotNull(EntityMappers.of(Account.class));
+        RowMappingPlan<Account> plan = RowMappingPlan.of(Account.class, Arrays.asList("id", "owner", "opened_at"));
+        Account account = plan.map(new Row(Arrays.asList(str("acc1"), str("tom"), Value.iVal(1700000000L))));
+        assertEquals("acc1", account.id);
+        assertEquals("tom", account.owner);
+        assertEquals(1700000000L, account.openedAt);
+    }
+
+    @Test
+    void planCacheEvictsLeastRecentlyUsed() {
+        List<String> hot = Collections.singletonList("hot_column");
+        RowMappingPlan<Person> hotPlan = RowMappingPlan.of(Person.class, hot);
+        List<String> cold = Collections.singletonList("cold_column");
+        RowMappingPlan<Person> coldPlan = RowMappingPlan.of(Person.class, cold);
+        for (int i = 0; i < 2000; i++) {
+            RowMappingPlan.of(Person.class, Collections.singletonList("c" + i));
+            if (i % 100 == 0) {
+                assertSame(hotPlan, RowMappingPlan.of(Person.class, hot));
+            }
+        }
+        // 一直在用的计划保留，很久未用的被淘汰后重新构建
+        assertSame(hotPlan, RowMappingPlan.of(Person.class, hot));
+        assertNotSame(coldPlan, RowMappingPlan.of(Person.class, cold));
+    }
+
+    static class Person {
+        private String userName;
+        private int age;
+        @NebulaIgnore
+        private String ignored;
+        private static String other;
+    }
+
+    static class Link {
+        private String URL;
+        private String homeURL;
+        private int pageId;
+    }
+
+    static class Immutable {
+        private final String name;
+        private final int score;
+        private final List<String> tags;
+
+        Immutable() {
+            this.name = "default";
+            this.score = -1;
+            this.tags = null;
+        }
+    }
+
+    /**
+     * 有映射类的实体，映射类按 NebulaMapperProcessor 的方式跳过 final 字段，
+     * 见 {@link RowMappingPlanTest_Account_NebulaMapper}
+     */
+    static class Account {
+        String id;
+        String owner;
+        final long openedAt;
+
+        Account() {
+            this.openedAt = 0;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import com.vesoft.nebula.Value;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * {@link RowMappingPlanTest.Account} 的映射类
+ * 测试编译不启用 NebulaMapperProcessor，这里按其生成的代码手写：final 字段可读但不在可写字段中
+ */
+public final class RowMappingPlanTest_Account_NebulaMapper implements EntityMapper<RowMappingPlanTest.Account> {
+
+    private static final String[] PROP_NAMES = {"id", "owner", "openedAt"};
+    private static final Function<Value, Object> DECODER_0 = ValueDecoders.decoder(String.class, String.class);
+    private static final Function<Value, Object> DECODER_1 = ValueDecoders.decoder(String.class, String.class);
+
+    @Override
+    public Class<RowMappingPlanTest.Account> entityType() {
+        return RowMappingPlanTest.Account.class;
+    }
+
+    @Override
+    public boolean isVertex() {
+        return false;
+    }
+
+    @Override
+    public boolean isEdge() {
+        return false;
+    }
+
+    @Override
+    public boolean hasRank() {
+        return false;
+    }
+
+    @Override
+    public String[] propNames() {
+        return PROP_NAMES.clone();
+    }
+
+    @Override
+    public Object vid(RowMappingPlanTest.Account entity) {
+        return null;
+    }
+
+    @Override
+    public Object from(RowMappingPlanTest.Account entity) {
+        return null;
+    }
+
+    @Override
+    public Object to(RowMappingPlanTest.Account entity) {
+        return null;
+    }
+
+    @Override
+    public Object rank(RowMappingPlanTest.Account entity) {
+        return null;
+    }
+
+    @Override
+    public Object prop(RowMappingPlanTest.Account entity, int index) {
+        switch (index) {
+            case 0:
+                return entity.id;
+            case 1:
+                return entity.owner;
+            case 2:
+                return entity.openedAt;
+            default:
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+    }
+
+    @Override
+    public void appendProps(RowMappingPlanTest.Account entity, StringBuilder sb) {
+        NGqlEncoder.appendString(sb, entity.id);
+        sb.append(',');
+        NGqlEncoder.appendString(sb, entity.owner);
+        sb.append(',');
+        sb.append(entity.openedAt);
+    }
+
+    @Override
+    public void putProps(RowMappingPlanTest.Account entity, String[] paramNames, Map<String, Object> params) {
+        params.put(paramNames[0], EntityMappers.param(entity.id));
+        params.put(paramNames[1], EntityMappers.param(entity.owner));
+        params.put(paramNames[2], entity.openedAt);
+    }
+
+    @Override
+    public RowMappingPlanTest.Account newInstance() {
+        return new RowMappingPlanTest.Account();
+    }
+
+    @Override
+    public int fieldIndex(String fieldName) {
+        switch (fieldName) {
+            case "id":
+                return 0;
+            case "owner":
+                return 1;
+            default:
+                return -1;
+        }
+    }
+
+    @Override
+    public void set(RowMappingPlanTest.Account entity, int fieldIndex, Value value) {
+        switch (fieldIndex) {
+            case 0:
+                entity.id = (String) DECODER_0.apply(value);
+                return;
+            case 1:
+                entity.owner = (String) DECODER_1.apply(value);
+                return;
+            default:
+        }
+    }
+}
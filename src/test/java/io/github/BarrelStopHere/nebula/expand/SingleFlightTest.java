@@ -0,0 +1,75 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * 并发相同查询合并，以及执行方与等待方之间的结果隔离
+ */
+class SingleFlightTest {
+
+    @Test
+    void callersGetIndependentCopies() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> leader = executor.submit(() -> {
+                List<String> result = flight.execute("s", "q", String.class, () -> {
+                    leaderStarted.countDown();
+                    await(release);
+                    return new ArrayList<>(Arrays.asList("a", "b"));
+                });
+                // 执行方修改自己的列表，不影响等待方
+                result.add("leader");
+                return result;
+            });
+            leaderStarted.await(5, TimeUnit.SECONDS);
+            Future<List<String>> waiter = executor.submit(
+                    () -> flight.execute("s", "q", String.class, () -> new ArrayList<>(Arrays.asList("other"))));
+            while (flight.getCoalesced() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            List<String> leaderResult = leader.get(5, TimeUnit.SECONDS);
+            List<String> waiterResult = waiter.get(5, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("a", "b", "leader"), leaderResult);
+            assertEquals(Arrays.asList("a", "b"), waiterResult);
+            assertNotSame(leaderResult, waiterResult);
+            waiterResult.add("waiter");
+            assertEquals(1, flight.getExecutions());
+            assertEquals(0, flight.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void finishedFlightIsNotReused() {
+        SingleFlight flight = new SingleFlight();
+        assertEquals(Arrays.asList("1"), flight.execute("s", "q", String.class, () -> Arrays.asList("1")));
+        assertEquals(Arrays.asList("2"), flight.execute("s", "q", String.class, () -> Arrays.asList("2")));
+        assertEquals(2, flight.getExecutions());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
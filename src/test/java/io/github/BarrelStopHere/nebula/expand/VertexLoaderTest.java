@@ -0,0 +1,206 @@
+package io.github.BarrelStopHere.nebula.expand;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 窗口合并、去重、两种发送时机、失败传播和 VID 还原，批量查询由假的 fetcher 提供
+ */
+class VertexLoaderTest {
+
+    private final List<List<Object>> fetched = new CopyOnWriteArrayList<>();
+    private final List<VertexLoader<Player>> loaders = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        loaders.forEach(VertexLoader::close);
+    }
+
+    private VertexLoader<Player> loader(int maxBatchSize, long lingerMillis,
+                                        Function<List<Object>, CompletableFuture<List<Player>>> fetcher) {
+        VertexLoaderConfig config = new VertexLoaderConfig();
+        config.setMaxBatchSize(maxBatchSize);
+        config.setLingerMillis(lingerMillis);
+        VertexLoader<Player> loader = new VertexLoader<>(ids -> {
+            fetched.add(new ArrayList<>(ids));
+            return fetcher.apply(ids);
+        }, player -> player.vid, config);
+        loaders.add(loader);
+        return loader;
+    }
+
+    /**
+     * 查到除 missing 以外的全部 VID，实体的 VID 为去掉引号、反转义后的原始字符串
+     */
+    private static Function<List<Object>, CompletableFuture<List<Player>>> found(String... missing) {
+        List<String> absent = Arrays.asList(missing);
+        return ids -> {
+            List<Player> players = new ArrayList<>();
+            for (Object id : ids) {
+                String vid = VertexLoader.key(id);
+                if (!absent.contains(vid)) {
+                    players.add(new Player(vid));
+                }
+            }
+            return CompletableFuture.completedFuture(players);
+        };
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void keyUnquotesAndUnescapesStringVids() {
+        assertEquals("player1", VertexLoader.key("\"player1\""));
+        assertEquals("player1", VertexLoader.key("player1"));
+        assertEquals("42", VertexLoader.key(42L));
+        assertEquals("a\"b\\c'd", VertexLoader.key("\"a\\\"b\\\\c\\'d\""));
+        assertEquals("a\tb\nc\rd\be\f", VertexLoader.key("\"a\\tb\\nc\\rd\\be\\f\""));
+        // 八进制最多三位，之后的数字不属于转义
+        assertEquals("a\u0001b\u00037", VertexLoader.key("\"a\\001b\\0037\""));
+        assertEquals("\u0007x", VertexLoader.key("\"\\7x\""));
+        // graphd 对未知转义只保留该字符
+        assertEquals("u0001", VertexLoader.key("\"\\u0001\""));
+        // 单个引号或末尾孤立的反斜杠不是完整的字符串字面量
+        assertEquals("\"", VertexLoader.key("\""));
+        assertEquals("a\\", VertexLoader.key("\"a\\\""));
+    }
+
+    @Test
+    void keyMatchesEncoderOutput() {
+        String raw = "名\"字\\\u0001\t\u001f9";
+        StringBuilder sb = new StringBuilder();
+        NGqlEncoder.appendString(sb, raw);
+        assertEquals(raw, VertexLoader.key(sb.toString()));
+    }
+
+    @Test
+    void quotedVidIsMatchedToEntity() throws Exception {
+        VertexLoader<Player> loader = loader(10, 5, found("missing"));
+        CompletableFuture<Player> quoted = loader.load("\"a\\\"b\"");
+        CompletableFuture<Player> plain = loader.load(7L);
+        CompletableFuture<Player> missing = loader.load("\"missing\"");
+        assertEquals("a\"b", get(quoted).vid);
+        assertEquals("7", get(plain).vid);
+        assertNull(get(missing));
+        assertEquals(1, fetched.size());
+    }
+
+    @Test
+    void duplicateIdsInOneWindowAreFetchedOnce() throws Exception {
+        VertexLoader<Player> loader = loader(10, 20, found());
+        CompletableFuture<Player> first = loader.load("\"p1\"");
+        CompletableFuture<Player> second = loader.load("\"p1\"");
+        CompletableFuture<Player> other = loader.load("\"p2\"");
+        assertSame(first, second);
+        assertEquals("p1", get(first).vid);
+        assertEquals("p2", get(other).vid);
+        assertEquals(Collections.singletonList(Arrays.<Object>asList("\"p1\"", "\"p2\"")), fetched);
+        assertEquals(3, loader.getLoads());
+        assertEquals(1, loader.getDeduped());
+        assertEquals(1, loader.getBatches());
+
+        // 下一个窗口重新查询
+        assertEquals("p1", get(loader.load("\"p1\"")).vid);
+        assertEquals(2, fetched.size());
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForLinger() throws Exception {
+        // linger 足够长，只有攒满才会立即发送
+        VertexLoader<Player> loader = loader(3, 60_000, found());
+        List<CompletableFuture<Player>> futures = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            futures.add(loader.load("p" + i));
+        }
+        for (int i = 0; i < 6; i++) {
+            assertEquals("p" + i, get(futures.get(i)).vid);
+        }
+        assertEquals(2, fetched.size());
+        assertEquals(Arrays.<Object>asList("p3", "p4", "p5"), fetched.get(1));
+        // 第 7 个仍在窗口中等待
+        assertFalse(futures.get(6).isDone());
+        loader.close();
+        assertEquals("p6", get(futures.get(6)).vid);
+        assertEquals(3, fetched.size());
+    }
+
+    @Test
+    void partialBatchIsSentAfterLinger() throws Exception {
+        VertexLoader<Player> loader = loader(100, 20, found());
+        long start = System.nanoTime();
+        CompletableFuture<Player> a = loader.load("a");
+        CompletableFuture<Player> b = loader.load("b");
+        assertEquals("a", get(a).vid);
+        assertEquals("b", get(b).vid);
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waited >= 15, "应在 linger 后发送，实际 " + waited + "ms");
+        assertEquals(Collections.singletonList(Arrays.<Object>asList("a", "b")), fetched);
+    }
+
+    @Test
+    void asyncFailureFailsEveryPendingFuture() {
+        IllegalStateException error = new IllegalStateException("graphd 不可用");
+        VertexLoader<Player> loader = loader(3, 60_000, ids -> {
+            CompletableFuture<List<Player>> future = new CompletableFuture<>();
+            future.completeExceptionally(error);
+            return future;
+        });
+        List<CompletableFuture<Player>> futures = Arrays.asList(loader.load("a"), loader.load("a"),
+                loader.load("b"), loader.load("c"));
+        for (CompletableFuture<Player> future : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> get(future));
+            assertSame(error, e.getCause());
+        }
+    }
+
+    @Test
+    void fetcherThrowingFailsEveryPendingFuture() {
+        VertexLoader<Player> loader = loader(100, 5, ids -> {
+            throw new NebulaException("构建语句失败");
+        });
+        CompletableFuture<Player> a = loader.load("a");
+        CompletableFuture<Player> b = loader.load("b");
+        for (CompletableFuture<Player> future : Arrays.asList(a, b)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> get(future));
+            assertTrue(e.getCause() instanceof NebulaException);
+        }
+    }
+
+    @Test
+    void closeSendsPendingAndRejectsNewLoads() throws Exception {
+        VertexLoader<Player> loader = loader(100, 60_000, found());
+        CompletableFuture<Player> pending = loader.load("a");
+        loader.close();
+        loader.close();
+        assertEquals("a", get(pending).vid);
+        assertThrows(NebulaException.class, () -> loader.load("b"));
+        assertEquals(1, fetched.size());
+    }
+
+    static class Player {
+        private final String vid;
+
+        Player(String vid) {
+            this.vid = vid;
+        }
+    }
+}